@@ -0,0 +1,170 @@
+package graph;
+
+import java.util.Arrays;
+
+/* See restrictions in Graph.java. */
+
+/** A table of growable lists of ints, indexed by vertex number.  Each
+ *  list is a segment of a plain int[] that is allocated on its first
+ *  insertion and doubled as needed, so that storing an adjacency costs
+ *  four bytes per entry (plus slack) and no boxing.  Each entry also
+ *  carries an edge id, held in a parallel segment.
+ *  @author Tina Nguyen
+ */
+class Adjacency {
+
+    /** An empty table. */
+    Adjacency() {
+        _lists = new int[INITIAL_VERTICES][];
+        _ids = new int[INITIAL_VERTICES][];
+        _sizes = new int[INITIAL_VERTICES];
+    }
+
+    /** A table whose list for each vertex V is LISTS[V][0 .. SIZES[V]-1],
+     *  with edge ids IDS[V][0 .. SIZES[V]-1].  The table takes ownership
+     *  of the arrays. */
+    Adjacency(int[][] lists, int[][] ids, int[] sizes) {
+        _lists = lists;
+        _ids = ids;
+        _sizes = sizes;
+    }
+
+    /** Returns the number of entries in the list for V, or 0 if there
+     *  is none. */
+    int size(int v) {
+        return v >= 0 && v < _sizes.length ? _sizes[v] : 0;
+    }
+
+    /** Returns entry K of the list for V.  Assumes 0 <= K < size(V). */
+    int get(int v, int k) {
+        return _lists[v][k];
+    }
+
+    /** Returns the edge id attached to entry K of the list for V.
+     *  Assumes 0 <= K < size(V). */
+    int id(int v, int k) {
+        return _ids[v][k];
+    }
+
+    /** Returns the storage of the list for V, whose first size(V)
+     *  entries are the list.  It is invalid once the list is
+     *  modified. */
+    int[] entries(int v) {
+        int n = size(v);
+        return n == 0 ? EMPTY : _lists[v];
+    }
+
+    /** Returns the storage of the edge ids of the list for V, as for
+     *  entries(V). */
+    int[] ids(int v) {
+        int n = size(v);
+        return n == 0 ? EMPTY : _ids[v];
+    }
+
+    /** Returns the index of the first occurrence of W in the list for V,
+     *  or -1 if there is none. */
+    int indexOf(int v, int w) {
+        int n = size(v);
+        if (n > 0) {
+            int[] list = _lists[v];
+            for (int k = 0; k < n; k += 1) {
+                if (list[k] == w) {
+                    return k;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /** Returns an iteration over the list for V.  It reads the list in
+     *  place, and so is invalid once the list is modified. */
+    IntIteration iteration(int v) {
+        int n = size(v);
+        return Iteration.iteration(n == 0 ? EMPTY : _lists[v], 0, n);
+    }
+
+    /** Returns an iteration over the list for V from last to first,
+     *  under the same conditions as iteration(V). */
+    IntIteration reverseIteration(int v) {
+        int n = size(v);
+        return Iteration.reverseIteration(n == 0 ? EMPTY : _lists[v], 0, n);
+    }
+
+    /** Returns a copy of the list for V. */
+    int[] toArray(int v) {
+        int n = size(v);
+        return n == 0 ? EMPTY : Arrays.copyOf(_lists[v], n);
+    }
+
+    /** Append W, with edge id ID, to the list for V. */
+    void add(int v, int w, int id) {
+        ensureVertex(v);
+        int n = _sizes[v];
+        int[] list = _lists[v];
+        if (list == null) {
+            list = _lists[v] = new int[INITIAL_LIST];
+            _ids[v] = new int[INITIAL_LIST];
+        } else if (n == list.length) {
+            list = _lists[v] = Arrays.copyOf(list, 2 * n);
+            _ids[v] = Arrays.copyOf(_ids[v], 2 * n);
+        }
+        list[n] = w;
+        _ids[v][n] = id;
+        _sizes[v] = n + 1;
+    }
+
+    /** Remove entry K from the list for V, preserving the order of the
+     *  remaining entries.  Assumes 0 <= K < size(V). */
+    void removeAt(int v, int k) {
+        int n = _sizes[v] - 1;
+        System.arraycopy(_lists[v], k + 1, _lists[v], k, n - k);
+        System.arraycopy(_ids[v], k + 1, _ids[v], k, n - k);
+        _sizes[v] = n;
+    }
+
+    /** Remove the first occurrence of W from the list for V, if any.
+     *  Returns its edge id, or 0 if there was none. */
+    int remove(int v, int w) {
+        int k = indexOf(v, w);
+        if (k < 0) {
+            return 0;
+        }
+        int id = _ids[v][k];
+        removeAt(v, k);
+        return id;
+    }
+
+    /** Discard the list for V and its storage. */
+    void clear(int v) {
+        if (v >= 0 && v < _sizes.length) {
+            _lists[v] = null;
+            _ids[v] = null;
+            _sizes[v] = 0;
+        }
+    }
+
+    /** Make sure that there is room for a list for vertex V. */
+    private void ensureVertex(int v) {
+        if (v >= _sizes.length) {
+            int n = Math.max(v + 1, 2 * _sizes.length);
+            _lists = Arrays.copyOf(_lists, n);
+            _ids = Arrays.copyOf(_ids, n);
+            _sizes = Arrays.copyOf(_sizes, n);
+        }
+    }
+
+    /** Initial number of vertex slots. */
+    private static final int INITIAL_VERTICES = 16;
+    /** Capacity of a list on its first insertion. */
+    private static final int INITIAL_LIST = 4;
+    /** The empty list. */
+    private static final int[] EMPTY = {};
+
+    /** The list storage for each vertex, or null if never used. */
+    private int[][] _lists;
+    /** The edge ids of the entries of each of _lists. */
+    private int[][] _ids;
+    /** The number of entries in use in each of _lists. */
+    private int[] _sizes;
+
+}
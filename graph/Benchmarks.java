@@ -0,0 +1,373 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.DoubleSupplier;
+
+/* See restrictions in Graph.java. */
+
+/** Timings of the representations and algorithms of the graph package,
+ *  run with
+ *      java graph.Benchmarks [ NAME ... ]
+ *  where each NAME is one of the benchmarks listed in usage (by default,
+ *  all of them).  In the manner of JMH, each benchmark runs in a JVM of
+ *  its own, so that code compiled for one does not affect another, and
+ *  each timed task is first run WARMUP times, so that it is compiled,
+ *  and then MEASURED times, reporting the mean and standard deviation of
+ *  the measured times.  Graphs are random, but generated from fixed
+ *  seeds, so that runs are comparable.  These are not unit tests, and
+ *  nothing else in the package depends on them.
+ *  @author Tina Nguyen
+ */
+class Benchmarks {
+
+    /** Run the benchmarks named in ARGS, or all of them if it is empty,
+     *  each in a new JVM.  That JVM is passed the arguments RUN and the
+     *  name of the benchmark. */
+    public static void main(String... args) {
+        if (args.length == 2 && args[0].equals(RUN)) {
+            run(args[1]);
+            return;
+        }
+        if (args.length == 0) {
+            args = NAMES;
+        }
+        for (String name : args) {
+            if (!Arrays.asList(NAMES).contains(name)) {
+                usage();
+            }
+        }
+        for (String name : args) {
+            fork(name);
+        }
+    }
+
+    /** Run the benchmark named NAME in a new JVM, with my class path. */
+    private static void fork(String name) {
+        String java =
+            Paths.get(System.getProperty("java.home"), "bin", "java")
+            .toString();
+        ProcessBuilder builder =
+            new ProcessBuilder(java, "-cp",
+                               System.getProperty("java.class.path"),
+                               Benchmarks.class.getName(), RUN, name);
+        try {
+            int status = builder.inheritIO().start().waitFor();
+            if (status != 0) {
+                System.exit(status);
+            }
+        } catch (IOException | InterruptedException excp) {
+            System.err.printf("could not run benchmark %s: %s%n", name,
+                              excp.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /** Run the benchmark named NAME in this JVM. */
+    private static void run(String name) {
+        switch (name) {
+        case "directed":
+            scans(randomGraph(SCAN_VERTICES, SCAN_DEGREE, 1));
+            break;
+        case "csr":
+            scans(new CSRGraph(randomGraph(SCAN_VERTICES, SCAN_DEGREE, 1),
+                               true));
+            break;
+        case "treeset":
+            searches(true);
+            break;
+        case "heap":
+            searches(false);
+            break;
+        default:
+            usage();
+            break;
+        }
+    }
+
+    /** Time scans and searches of G. */
+    private static void scans(Graph G) {
+        String name = G.getClass().getSimpleName();
+        time(name + " successors", () -> successorScan(G));
+        time(name + " predecessors", () -> predecessorScan(G));
+        time(name + " successor iteration", () -> successorIteration(G));
+        time(name + " predecessor iteration",
+             () -> predecessorIteration(G));
+        time(name + " dijkstra", () -> dijkstra(G, 1));
+    }
+
+    /** Time one-to-all Dijkstra searches and A* searches between opposite
+     *  corners of a grid, keeping the fringe in a TreeSet, as setPaths
+     *  once did, iff TREESET, and otherwise in setPaths' indexed heap. */
+    private static void searches(boolean treeSet) {
+        Graph G = grid(GRID_SIDE);
+        int last = G.maxVertex();
+        String name = treeSet ? "TreeSet" : "IndexedHeap";
+        time(name + " dijkstra",
+             () -> new GridSearch(G, 1, 0, treeSet).search(last));
+        time(name + " astar",
+             () -> new GridSearch(G, 1, last, treeSet).search(last));
+        time(name + " astar reversed",
+             () -> new GridSearch(G, last, 1, treeSet).search(1));
+    }
+
+    /** A search of a graph made by grid, whose edges weigh the distances
+     *  between their ends (see distance) and whose estimated distance is
+     *  the straight-line distance to the destination. */
+    private static class GridSearch extends SimpleShortestPaths {
+        /** A search of G from SOURCE to DEST (all vertices if 0), using a
+         *  TreeSet for the fringe iff TREESET. */
+        GridSearch(Graph G, int source, int dest, boolean treeSet) {
+            super(G, source, dest);
+            _treeSet = treeSet;
+        }
+
+        /** Returns the weight of a shortest path to V, after finding
+         *  it. */
+        double search(int v) {
+            setPaths();
+            return getWeight(v);
+        }
+
+        /** Find the shortest paths, with the TreeSet loop that setPaths
+         *  used before its heap if _treeSet, and otherwise as usual. */
+        @Override
+        public void setPaths() {
+            if (!_treeSet) {
+                super.setPaths();
+                return;
+            }
+            TreeSet<Integer> tree = new TreeSet<>((v1, v2) -> {
+                double d1 = getWeight(v1) + estimatedDistance(v1),
+                    d2 = getWeight(v2) + estimatedDistance(v2);
+                return d1 != d2 ? Double.compare(d1, d2) : v1 - v2;
+            });
+            initialize();
+            for (int v = 0; v <= _G.maxVertex(); v += 1) {
+                setWeight(v, Double.POSITIVE_INFINITY);
+            }
+            setWeight(getSource(), 0);
+            tree.add(getSource());
+            while (!tree.isEmpty()) {
+                int node = tree.pollFirst();
+                if (node == getDest()) {
+                    return;
+                }
+                for (int succ : _G.successors(node)) {
+                    double weight = getWeight(node) + getWeight(node, succ);
+                    if (weight < getWeight(succ)) {
+                        tree.remove(succ);
+                        setWeight(succ, weight);
+                        tree.add(succ);
+                        setPredecessor(succ, node);
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return distance(u, v);
+        }
+
+        @Override
+        protected double estimatedDistance(int v) {
+            return getDest() == 0 ? 0 : distance(v, getDest());
+        }
+
+        /** True iff the fringe is a TreeSet. */
+        private final boolean _treeSet;
+    }
+
+    /** Returns an undirected SIDE x SIDE grid graph, in which vertex
+     *  1 + R * SIDE + C is at row R and column C and is adjacent to the
+     *  vertices above, below, and beside it. */
+    static Graph grid(int side) {
+        UndirectedGraph G = new UndirectedGraph();
+        for (int i = 0; i < side * side; i += 1) {
+            G.add();
+        }
+        for (int r = 0; r < side; r += 1) {
+            for (int c = 0; c < side; c += 1) {
+                int v = 1 + r * side + c;
+                if (c + 1 < side) {
+                    G.add(v, v + 1);
+                }
+                if (r + 1 < side) {
+                    G.add(v, v + side);
+                }
+            }
+        }
+        return G;
+    }
+
+    /** Returns the straight-line distance between vertices U and V of a
+     *  grid of side GRID_SIDE, as numbered by grid. */
+    static double distance(int u, int v) {
+        int dr = (u - 1) / GRID_SIDE - (v - 1) / GRID_SIDE,
+            dc = (u - 1) % GRID_SIDE - (v - 1) % GRID_SIDE;
+        return Math.sqrt(dr * dr + dc * dc);
+    }
+
+    /** Returns the sum of the successors of all vertices of G, read through
+     *  the public API. */
+    private static double successorScan(Graph G) {
+        long sum = 0;
+        for (int v : G.vertices()) {
+            for (int w : G.successors(v)) {
+                sum += w;
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the sum of the predecessors of all vertices of G, read
+     *  through the public API. */
+    private static double predecessorScan(Graph G) {
+        long sum = 0;
+        for (int v : G.vertices()) {
+            for (int w : G.predecessors(v)) {
+                sum += w;
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the sum of the successors of all vertices of G, read
+     *  through the unboxed iterations used inside the package. */
+    private static double successorIteration(Graph G) {
+        long sum = 0;
+        for (IntIteration vs = G.vertexIteration(); vs.hasNext();) {
+            for (IntIteration it = G.successorIteration(vs.nextInt());
+                 it.hasNext();) {
+                sum += it.nextInt();
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the sum of the predecessors of all vertices of G, read
+     *  through the unboxed iterations used inside the package. */
+    private static double predecessorIteration(Graph G) {
+        long sum = 0;
+        for (IntIteration vs = G.vertexIteration(); vs.hasNext();) {
+            for (IntIteration it = G.predecessorIteration(vs.nextInt());
+                 it.hasNext();) {
+                sum += it.nextInt();
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the sum of the distances from SOURCE to all vertices of G
+     *  it reaches, as found by SimpleShortestPaths with the edge
+     *  weights given by weight. */
+    private static double dijkstra(Graph G, int source) {
+        SimpleShortestPaths paths = new SimpleShortestPaths(G, source) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return weight(u, v);
+            }
+        };
+        paths.setPaths();
+        double sum = 0;
+        for (int v : G.vertices()) {
+            if (paths.getWeight(v) != Double.POSITIVE_INFINITY) {
+                sum += paths.getWeight(v);
+            }
+        }
+        return sum;
+    }
+
+    /** Returns the weight of edge (U, V) used by the searches: a number
+     *  from 1 to 8 that depends only on U and V. */
+    static double weight(int u, int v) {
+        return 1 + ((u * WEIGHT_FACTOR + v) & WEIGHT_MASK);
+    }
+
+    /** Returns a directed graph with vertices 1 .. N, each with DEGREE
+     *  edges to random vertices (fewer where they coincide), generated
+     *  from SEED. */
+    static DirectedGraph randomGraph(int n, int degree, long seed) {
+        Random random = new Random(seed);
+        DirectedGraph G = new DirectedGraph();
+        for (int i = 0; i < n; i += 1) {
+            G.add();
+        }
+        for (int u = 1; u <= n; u += 1) {
+            for (int k = 0; k < degree; k += 1) {
+                G.add(u, 1 + random.nextInt(n));
+            }
+        }
+        return G;
+    }
+
+    /** Run TASK WARMUP times and then MEASURED times, and print the mean
+     *  and standard deviation of the measured times in milliseconds,
+     *  labeled LABEL. */
+    static void time(String label, DoubleSupplier task) {
+        for (int i = 0; i < WARMUP; i += 1) {
+            _sink += task.getAsDouble();
+        }
+        double sum = 0, sumSquares = 0;
+        for (int i = 0; i < MEASURED; i += 1) {
+            long start = System.nanoTime();
+            _sink += task.getAsDouble();
+            double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            sum += millis;
+            sumSquares += millis * millis;
+        }
+        double mean = sum / MEASURED;
+        double deviation =
+            Math.sqrt(Math.max(0, sumSquares / MEASURED - mean * mean));
+        System.out.printf("%-40s %9.2f +- %6.2f ms%n", label, mean,
+                          deviation);
+    }
+
+    /** Print a usage message and exit abnormally. */
+    private static void usage() {
+        System.err.printf("Usage: java graph.Benchmarks [ NAME ... ],"
+                          + " where NAME is one of %s%n",
+                          String.join(", ", NAMES));
+        System.exit(1);
+    }
+
+    /** The names of the benchmarks: the scans and searches of "directed",
+     *  a DirectedGraph, are compared with those of "csr", a CSRGraph
+     *  snapshot of it, and the searches of "treeset", which keeps the
+     *  fringe of ShortestPaths in a TreeSet, with those of "heap", which
+     *  uses its indexed heap. */
+    private static final String[] NAMES = {
+        "directed", "csr", "treeset", "heap"
+    };
+    /** First argument of the JVM that runs a benchmark. */
+    private static final String RUN = "-run";
+
+    /** Number of untimed runs of each task. */
+    private static final int WARMUP = 10;
+    /** Number of timed runs of each task. */
+    private static final int MEASURED = 20;
+    /** Nanoseconds per millisecond. */
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /** Number of vertices in the graphs that are scanned. */
+    private static final int SCAN_VERTICES = 200000;
+    /** Out-degree of the vertices in the graphs that are scanned. */
+    private static final int SCAN_DEGREE = 4;
+
+    /** Number of vertices along each side of the grid that is searched. */
+    private static final int GRID_SIDE = 300;
+
+    /** Multiplier used in computing edge weights. */
+    private static final int WEIGHT_FACTOR = 31;
+    /** Mask giving the range of edge weights. */
+    private static final int WEIGHT_MASK = 7;
+
+    /** Sum of the results of all tasks, kept so that their computations
+     *  are not optimized away. */
+    private static double _sink;
+
+}
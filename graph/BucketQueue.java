@@ -0,0 +1,354 @@
+package graph;
+
+import java.util.Arrays;
+
+/* See restrictions in Graph.java. */
+
+/** A monotone priority queue of vertices whose priorities are whole
+ *  numbers, none less than that of the last vertex removed, as is true
+ *  of the weights in Dijkstra's algorithm when the edge weights are
+ *  whole numbers.  Such queues can keep vertices in buckets by priority
+ *  rather than comparing them, so that each operation takes O(1)
+ *  amortized time (O(log C) for the radix heap, where C is the largest
+ *  edge weight).
+ *
+ *  Lowering the priority of a vertex adds another entry for it rather
+ *  than moving the old one; the old entry is recognized and skipped
+ *  when it reaches the front.  Priorities that are not whole numbers,
+ *  or that are out of the range of the queue, are rejected with an
+ *  IllegalArgumentException.  Subclasses supply the bucket structure:
+ *  Dial (a ring of buckets), Radix (a radix heap), and ZeroOne (a deque,
+ *  for edge weights of 0 and 1).
+ *  @author Tina Nguyen
+ */
+abstract class BucketQueue implements VertexQueue {
+
+    /** An empty queue. */
+    BucketQueue() {
+        _keys = new long[INITIAL_CAPACITY];
+        _queued = new int[INITIAL_CAPACITY];
+        _epoch = 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /** Returns the number of vertices in me. */
+    int size() {
+        return _size;
+    }
+
+    @Override
+    public void update(int v, double priority) {
+        long key = (long) priority;
+        if (key != priority || key < _last || !inRange(key)) {
+            throw new IllegalArgumentException(
+                "priority " + priority + " out of range of queue");
+        }
+        if (v >= _keys.length) {
+            int size = Math.max(v + 1, 2 * _keys.length);
+            _keys = Arrays.copyOf(_keys, size);
+            _queued = Arrays.copyOf(_queued, size);
+        }
+        if (_queued[v] != _epoch) {
+            _queued[v] = _epoch;
+            _size += 1;
+        } else if (key >= _keys[v]) {
+            return;
+        }
+        _keys[v] = key;
+        push(v, key);
+    }
+
+    @Override
+    public int poll() {
+        while (true) {
+            int v = pop();
+            if (_queued[v] == _epoch && _keys[v] == _popped) {
+                _queued[v] = 0;
+                _size -= 1;
+                _last = _popped;
+                return v;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        _size = 0;
+        _last = 0;
+        _epoch += 1;
+        if (_epoch == 0) {
+            Arrays.fill(_queued, 0);
+            _epoch = 1;
+        }
+        clearEntries();
+    }
+
+    /** Returns the priority of the last vertex removed, or 0 if none
+     *  has been since I was last cleared. */
+    long last() {
+        return _last;
+    }
+
+    /** Record KEY as the priority of the entry that pop is removing. */
+    void setPopped(long key) {
+        _popped = key;
+    }
+
+    /** Returns true iff an entry with KEY, which is at least last(), may
+     *  be added. */
+    abstract boolean inRange(long key);
+
+    /** Add an entry for vertex V with priority KEY. */
+    abstract void push(int v, long key);
+
+    /** Remove an entry with the least priority, record its priority
+     *  with setPopped, and return its vertex.  There must be an
+     *  entry. */
+    abstract int pop();
+
+    /** Remove all entries. */
+    abstract void clearEntries();
+
+    /** A queue of vertices whose priorities, when added, are at most C
+     *  more than that of the last vertex removed, kept in a ring of C + 1
+     *  buckets (Dial's algorithm).  Removal scans forward over empty
+     *  buckets, which costs at most C per vertex. */
+    static class Dial extends BucketQueue {
+        /** An empty queue for edge weights from 0 to C. */
+        Dial(int c) {
+            _buckets = new VertexStack[c + 1];
+            for (int i = 0; i <= c; i += 1) {
+                _buckets[i] = new VertexStack();
+            }
+        }
+
+        @Override
+        boolean inRange(long key) {
+            return key - last() < _buckets.length;
+        }
+
+        @Override
+        void push(int v, long key) {
+            _buckets[(int) (key % _buckets.length)].push(v, key);
+        }
+
+        @Override
+        int pop() {
+            while (_buckets[_current]._size == 0) {
+                _current = (_current + 1) % _buckets.length;
+            }
+            VertexStack bucket = _buckets[_current];
+            setPopped(bucket.topKey());
+            return bucket.pop();
+        }
+
+        @Override
+        void clearEntries() {
+            for (VertexStack bucket : _buckets) {
+                bucket._size = 0;
+            }
+            _current = 0;
+        }
+
+        /** The ring of buckets: entries with priority K are in
+         *  _buckets[K % _buckets.length]. */
+        private final VertexStack[] _buckets;
+        /** The bucket holding the least priorities. */
+        private int _current;
+    }
+
+    /** A queue of vertices kept in a radix heap: bucket 0 holds the
+     *  entries whose priority equals that of the last removed, and bucket
+     *  I > 0 those whose highest bit differing from it is bit I-1.  When
+     *  bucket 0 is empty, the first non-empty bucket is redistributed
+     *  around its least priority.  Each entry moves down at most 64
+     *  times, and in practice about log C times. */
+    static class Radix extends BucketQueue {
+        /** An empty queue. */
+        Radix() {
+            _buckets = new VertexStack[Long.SIZE + 1];
+            for (int i = 0; i < _buckets.length; i += 1) {
+                _buckets[i] = new VertexStack();
+            }
+        }
+
+        @Override
+        boolean inRange(long key) {
+            return true;
+        }
+
+        @Override
+        void push(int v, long key) {
+            _buckets[bucket(key)].push(v, key);
+        }
+
+        @Override
+        int pop() {
+            if (_buckets[0]._size == 0) {
+                int i = 1;
+                while (_buckets[i]._size == 0) {
+                    i += 1;
+                }
+                VertexStack bucket = _buckets[i];
+                long least = bucket._keys[0];
+                for (int k = 1; k < bucket._size; k += 1) {
+                    least = Math.min(least, bucket._keys[k]);
+                }
+                _base = least;
+                int size = bucket._size;
+                bucket._size = 0;
+                for (int k = 0; k < size; k += 1) {
+                    push(bucket._vertices[k], bucket._keys[k]);
+                }
+            }
+            setPopped(_base);
+            return _buckets[0].pop();
+        }
+
+        @Override
+        void clearEntries() {
+            for (VertexStack bucket : _buckets) {
+                bucket._size = 0;
+            }
+            _base = 0;
+        }
+
+        /** Returns the bucket for priority KEY. */
+        private int bucket(long key) {
+            return Long.SIZE - Long.numberOfLeadingZeros(key ^ _base);
+        }
+
+        /** The buckets. */
+        private final VertexStack[] _buckets;
+        /** The priority that bucket numbers are relative to: the least
+         *  priority of any entry at the last redistribution. */
+        private long _base;
+    }
+
+    /** A queue of vertices whose priorities, when added, are either that
+     *  of the last vertex removed or one more, as in a breadth-first
+     *  search over edges weighing 0 or 1.  Entries are kept in a
+     *  double-ended queue in order of priority: the first kind are added
+     *  at the front, and the second at the back. */
+    static class ZeroOne extends BucketQueue {
+        /** An empty queue. */
+        ZeroOne() {
+            _vertices = new int[INITIAL_CAPACITY];
+            _entryKeys = new long[INITIAL_CAPACITY];
+        }
+
+        @Override
+        boolean inRange(long key) {
+            return key - last() <= 1;
+        }
+
+        @Override
+        void push(int v, long key) {
+            if (_count == _vertices.length) {
+                grow();
+            }
+            int mask = _vertices.length - 1;
+            int i = (_head + _count) & mask;
+            if (key == last()) {
+                _head = (_head - 1) & mask;
+                i = _head;
+            }
+            _vertices[i] = v;
+            _entryKeys[i] = key;
+            _count += 1;
+        }
+
+        @Override
+        int pop() {
+            int v = _vertices[_head];
+            setPopped(_entryKeys[_head]);
+            _head = (_head + 1) & (_vertices.length - 1);
+            _count -= 1;
+            return v;
+        }
+
+        @Override
+        void clearEntries() {
+            _head = _count = 0;
+        }
+
+        /** Double the capacity of the deque, moving its entries to the
+         *  start of the new arrays. */
+        private void grow() {
+            int n = _vertices.length;
+            int[] vertices = new int[2 * n];
+            long[] keys = new long[2 * n];
+            for (int k = 0; k < _count; k += 1) {
+                vertices[k] = _vertices[(_head + k) & (n - 1)];
+                keys[k] = _entryKeys[(_head + k) & (n - 1)];
+            }
+            _vertices = vertices;
+            _entryKeys = keys;
+            _head = 0;
+        }
+
+        /** The entries are (_vertices[I], _entryKeys[I]) for I from _head
+         *  through _count slots, wrapping around.  The length is a power
+         *  of 2. */
+        private int[] _vertices;
+        /** Priorities of the entries. */
+        private long[] _entryKeys;
+        /** Index of the first entry. */
+        private int _head;
+        /** Number of entries. */
+        private int _count;
+    }
+
+    /** A stack of entries: vertices with priorities. */
+    private static class VertexStack {
+        /** Add vertex V with priority KEY on top of me. */
+        void push(int v, long key) {
+            if (_size == _vertices.length) {
+                _vertices = Arrays.copyOf(_vertices, 2 * _size);
+                _keys = Arrays.copyOf(_keys, 2 * _size);
+            }
+            _vertices[_size] = v;
+            _keys[_size] = key;
+            _size += 1;
+        }
+
+        /** Returns the priority of my top entry. */
+        long topKey() {
+            return _keys[_size - 1];
+        }
+
+        /** Remove my top entry and return its vertex. */
+        int pop() {
+            _size -= 1;
+            return _vertices[_size];
+        }
+
+        /** The entries are (_vertices[I], _keys[I]) for I < _size. */
+        private int[] _vertices = new int[INITIAL_CAPACITY];
+        /** Priorities of the entries. */
+        private long[] _keys = new long[INITIAL_CAPACITY];
+        /** Number of entries. */
+        private int _size;
+    }
+
+    /** Initial capacity of arrays (a power of 2). */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** _keys[V] is the priority of V, if it is queued. */
+    private long[] _keys;
+    /** _queued[V] == _epoch iff V is queued. */
+    private int[] _queued;
+    /** Stamp marking queued vertices since I was last cleared. */
+    private int _epoch;
+    /** Number of vertices queued. */
+    private int _size;
+    /** Priority of the last vertex removed. */
+    private long _last;
+    /** Priority of the entry last removed by pop. */
+    private long _popped;
+
+}
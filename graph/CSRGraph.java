@@ -0,0 +1,374 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/* See restrictions in Graph.java. */
+
+/** An immutable snapshot of a Graph in compressed-sparse-row form.  The
+ *  successors of vertex V are _targets[_offsets[V] .. _offsets[V+1]-1],
+ *  in the order the original graph delivered them, so that a scan of
+ *  the graph walks two flat int arrays.  For directed graphs, the
+ *  predecessors are held the same way in a reverse table, built either
+ *  with the snapshot or on the first request for it.  Vertex numbers
+ *  are those of the original graph.  Operations that would modify the
+ *  graph throw UnsupportedOperationException.
+ *  @author Tina Nguyen
+ */
+class CSRGraph extends Graph {
+
+    /** A snapshot of G, with its predecessor table built now iff
+     *  PREDECESSORS (otherwise, it is built when first needed). */
+    CSRGraph(Graph G, boolean predecessors) {
+        int maxv = G.maxVertex();
+        _directed = G.isDirected();
+        _present = new boolean[maxv + 1];
+        _offsets = new int[maxv + 2];
+        int numVertices = 0;
+        for (IntIteration it = G.vertexIteration(); it.hasNext();) {
+            int v = it.nextInt();
+            _present[v] = true;
+            numVertices += 1;
+            _offsets[v + 1] = G.outDegree(v);
+        }
+        _numVertices = numVertices;
+        for (int v = 1; v <= maxv + 1; v += 1) {
+            _offsets[v] += _offsets[v - 1];
+        }
+        _targets = new int[_offsets[maxv + 1]];
+        for (int v = 1; v <= maxv; v += 1) {
+            if (_present[v]) {
+                int k = _offsets[v];
+                for (IntIteration it = G.successorIteration(v);
+                     it.hasNext();) {
+                    _targets[k] = it.nextInt();
+                    k += 1;
+                }
+            }
+        }
+        _numEdges = countEdges();
+        if (_directed && predecessors) {
+            reverse();
+        }
+    }
+
+    /** A graph with vertices 1 .. N, where the successors of V are
+     *  TARGETS[OFFSETS[V] .. OFFSETS[V+1]-1], and which is directed iff
+     *  DIRECTED.  Takes ownership of the arrays.  Used by GraphBuilder. */
+    CSRGraph(boolean directed, int n, int[] offsets, int[] targets) {
+        _directed = directed;
+        _present = new boolean[n + 1];
+        Arrays.fill(_present, 1, n + 1, true);
+        _numVertices = n;
+        _offsets = offsets;
+        _targets = targets;
+        _numEdges = countEdges();
+    }
+
+    /** A snapshot of G, building its predecessor table only when
+     *  needed. */
+    CSRGraph(Graph G) {
+        this(G, false);
+    }
+
+    @Override
+    public int vertexSize() {
+        return _numVertices;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _present.length - 1;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _numEdges;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _offsets[v + 1] - _offsets[v] : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!_directed) {
+            return outDegree(v);
+        }
+        int[] offsets = reverse()._offsets;
+        return contains(v) ? offsets[v + 1] - offsets[v] : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u < _present.length && _present[u];
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return find(u, v) >= 0;
+    }
+
+    @Override
+    public int add() {
+        throw new UnsupportedOperationException("graph is immutable");
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw new UnsupportedOperationException("graph is immutable");
+    }
+
+    @Override
+    public void remove(int v) {
+        throw new UnsupportedOperationException("graph is immutable");
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw new UnsupportedOperationException("graph is immutable");
+    }
+
+    /** Returns an iteration over my vertices that reads them from
+     *  _present, which never changes, rather than a copy. */
+    @Override
+    public Iteration<Integer> vertices() {
+        return vertexIteration();
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        if (!contains(v)) {
+            return Iteration.iteration(EMPTY);
+        }
+        return Iteration.iteration(_targets, _offsets[v], _offsets[v + 1]);
+    }
+
+    @Override
+    IntIteration reverseSuccessorIteration(int v) {
+        if (!contains(v)) {
+            return Iteration.iteration(EMPTY);
+        }
+        return Iteration.reverseIteration(_targets, _offsets[v],
+                                          _offsets[v + 1]);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        if (!_directed) {
+            return successors(v);
+        } else if (!contains(v)) {
+            return Iteration.iteration(EMPTY);
+        }
+        Reverse rev = reverse();
+        return Iteration.iteration(rev._sources, rev._offsets[v],
+                                   rev._offsets[v + 1]);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new EdgeIteration();
+    }
+
+    @Override
+    IntIteration vertexIteration() {
+        return new VertexIteration();
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        return find(u, v) + 1;
+    }
+
+    @Override
+    long version() {
+        return 0;
+    }
+
+    /** Returns the number of edges represented by _targets.  Undirected
+     *  edges appear twice, except for self edges. */
+    private int countEdges() {
+        if (_directed) {
+            return _targets.length;
+        }
+        int selfEdges = 0;
+        for (int v = 1; v < _present.length; v += 1) {
+            for (int k = _offsets[v]; k < _offsets[v + 1]; k += 1) {
+                if (_targets[k] == v) {
+                    selfEdges += 1;
+                }
+            }
+        }
+        return (_targets.length + selfEdges) / 2;
+    }
+
+    /** Returns the index in _targets of the edge (U, V), or -1 if there
+     *  is none.  Undirected edges are found in the successors of their
+     *  smaller end.  Takes time proportional to that vertex's degree. */
+    private int find(int u, int v) {
+        if (!contains(u) || !contains(v)) {
+            return -1;
+        } else if (!_directed && u > v) {
+            return scan(v, u);
+        } else {
+            return scan(u, v);
+        }
+    }
+
+    /** Returns the index of V in the successors of U in _targets, or -1
+     *  if it is not present. */
+    private int scan(int u, int v) {
+        for (int k = _offsets[u]; k < _offsets[u + 1]; k += 1) {
+            if (_targets[k] == v) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /** The table of predecessors of a directed CSRGraph. */
+    private static class Reverse {
+        /** The predecessors of V are _sources[_offsets[V] ..
+         *  _offsets[V+1]-1]. */
+        private int[] _offsets;
+        /** Concatenated predecessor lists. */
+        private int[] _sources;
+    }
+
+    /** Returns my predecessor table, building it if needed.  The table is
+     *  filled by a counting sort of my edges on their targets, so that
+     *  the predecessors of each vertex are in increasing order. */
+    private Reverse reverse() {
+        Reverse rev = _reverse;
+        if (rev == null) {
+            rev = new Reverse();
+            int n = _offsets.length;
+            int[] offsets = new int[n];
+            for (int w : _targets) {
+                offsets[w + 1] += 1;
+            }
+            for (int v = 1; v < n; v += 1) {
+                offsets[v] += offsets[v - 1];
+            }
+            int[] next = offsets.clone();
+            int[] sources = new int[_targets.length];
+            for (int u = 1; u < n - 1; u += 1) {
+                for (int k = _offsets[u]; k < _offsets[u + 1]; k += 1) {
+                    int w = _targets[k];
+                    sources[next[w]] = u;
+                    next[w] += 1;
+                }
+            }
+            rev._offsets = offsets;
+            rev._sources = sources;
+            _reverse = rev;
+        }
+        return rev;
+    }
+
+    /** An iteration over my vertices in numerical order. */
+    private class VertexIteration extends IntIteration {
+        /** An iteration starting with my smallest vertex. */
+        VertexIteration() {
+            _v = next(1);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _v < _present.length;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int v = _v;
+            _v = next(v + 1);
+            return v;
+        }
+
+        /** Returns my smallest vertex that is at least V, or
+         *  _present.length if there is none. */
+        private int next(int v) {
+            while (v < _present.length && !_present[v]) {
+                v += 1;
+            }
+            return v;
+        }
+
+        /** The next vertex to deliver, or _present.length if none. */
+        private int _v;
+    }
+
+    /** An iteration over my edges that returns each of them in the same
+     *  array. */
+    private class EdgeIteration extends Iteration<int[]> {
+        /** An iteration starting with the first edge. */
+        EdgeIteration() {
+            _u = 1;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _k < _targets.length;
+        }
+
+        @Override
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _edge[0] = _u;
+            _edge[1] = _targets[_k];
+            _k += 1;
+            advance();
+            return _edge;
+        }
+
+        /** Move _k and _u forward to the next edge to be delivered. */
+        private void advance() {
+            for (; _k < _targets.length; _k += 1) {
+                while (_k >= _offsets[_u + 1]) {
+                    _u += 1;
+                }
+                if (_directed || _u <= _targets[_k]) {
+                    return;
+                }
+            }
+        }
+
+        /** Source of the next edge. */
+        private int _u;
+        /** Index in _targets of the next edge. */
+        private int _k;
+        /** The array used to return edges. */
+        private final int[] _edge = new int[2];
+    }
+
+    /** The empty list. */
+    private static final int[] EMPTY = {};
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** _present[V] iff V is one of my vertices. */
+    private final boolean[] _present;
+    /** Number of my vertices. */
+    private final int _numVertices;
+    /** Number of my edges. */
+    private final int _numEdges;
+    /** Start of each vertex's successors in _targets. */
+    private final int[] _offsets;
+    /** Concatenated successor lists. */
+    private final int[] _targets;
+    /** Predecessor table, if built. */
+    private volatile Reverse _reverse;
+
+}
@@ -0,0 +1,180 @@
+package graph;
+
+import java.util.Arrays;
+
+/* See restrictions in Graph.java. */
+
+/** A GraphListener that records the modifications reported to it, in
+ *  order, so that they may be processed later as a batch rather than as
+ *  each is made.  Each change is a kind, two vertices, and an edge id,
+ *  the ones that do not apply being 0.  Records are kept in parallel
+ *  arrays, and so cost no allocation per change once the arrays have
+ *  grown to the size of a batch.
+ *  @author Tina Nguyen
+ */
+class ChangeLog implements GraphListener {
+
+    /** The kinds of change, one per report of GraphListener. */
+    enum Kind {
+        VERTEX_ADDED, VERTEX_REMOVED, EDGE_ADDED, EDGE_REMOVED,
+        VERTEX_LABEL_CHANGED, EDGE_LABEL_CHANGED, EDGE_WEIGHT_CHANGED,
+        RELOADED
+    }
+
+    @Override
+    public void vertexAdded(int v) {
+        record(Kind.VERTEX_ADDED, v, 0, 0);
+    }
+
+    @Override
+    public void vertexRemoved(int v) {
+        record(Kind.VERTEX_REMOVED, v, 0, 0);
+    }
+
+    @Override
+    public void edgeAdded(int u, int v, int e) {
+        record(Kind.EDGE_ADDED, u, v, e);
+    }
+
+    @Override
+    public void edgeRemoved(int u, int v, int e) {
+        record(Kind.EDGE_REMOVED, u, v, e);
+    }
+
+    @Override
+    public void vertexLabelChanged(int v) {
+        record(Kind.VERTEX_LABEL_CHANGED, v, 0, 0);
+    }
+
+    @Override
+    public void edgeLabelChanged(int u, int v, int e) {
+        record(Kind.EDGE_LABEL_CHANGED, u, v, e);
+    }
+
+    @Override
+    public void edgeWeightChanged(int u, int v, int e) {
+        record(Kind.EDGE_WEIGHT_CHANGED, u, v, e);
+    }
+
+    @Override
+    public void reloaded() {
+        record(Kind.RELOADED, 0, 0, 0);
+    }
+
+    /** Returns the number of changes recorded. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns true iff no changes are recorded. */
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /** Returns the kind of change #I, numbering from 0 in the order
+     *  made. */
+    Kind kind(int i) {
+        checkIndex(i);
+        return _kinds[i];
+    }
+
+    /** Returns the vertex changed by change #I, or the source of the edge
+     *  changed, or 0 for RELOADED. */
+    int u(int i) {
+        checkIndex(i);
+        return _us[i];
+    }
+
+    /** Returns the target of the edge changed by change #I, or 0 if it
+     *  does not change an edge. */
+    int v(int i) {
+        checkIndex(i);
+        return _vs[i];
+    }
+
+    /** Returns the id of the edge changed by change #I, or 0 if it does
+     *  not change an edge. */
+    int edge(int i) {
+        checkIndex(i);
+        return _edges[i];
+    }
+
+    /** Report my changes to LISTENER, in the order they were made. */
+    void replay(GraphListener listener) {
+        for (int i = 0; i < _size; i += 1) {
+            int u = _us[i], v = _vs[i], e = _edges[i];
+            switch (_kinds[i]) {
+            case VERTEX_ADDED:
+                listener.vertexAdded(u);
+                break;
+            case VERTEX_REMOVED:
+                listener.vertexRemoved(u);
+                break;
+            case EDGE_ADDED:
+                listener.edgeAdded(u, v, e);
+                break;
+            case EDGE_REMOVED:
+                listener.edgeRemoved(u, v, e);
+                break;
+            case VERTEX_LABEL_CHANGED:
+                listener.vertexLabelChanged(u);
+                break;
+            case EDGE_LABEL_CHANGED:
+                listener.edgeLabelChanged(u, v, e);
+                break;
+            case EDGE_WEIGHT_CHANGED:
+                listener.edgeWeightChanged(u, v, e);
+                break;
+            default:
+                listener.reloaded();
+                break;
+            }
+        }
+    }
+
+    /** Forget all recorded changes, keeping my arrays for the next
+     *  batch. */
+    void clear() {
+        Arrays.fill(_kinds, 0, _size, null);
+        _size = 0;
+    }
+
+    /** Add a change of kind KIND to U, V, and E. */
+    private void record(Kind kind, int u, int v, int e) {
+        if (_size == _kinds.length) {
+            int size = 2 * _size;
+            _kinds = Arrays.copyOf(_kinds, size);
+            _us = Arrays.copyOf(_us, size);
+            _vs = Arrays.copyOf(_vs, size);
+            _edges = Arrays.copyOf(_edges, size);
+        }
+        _kinds[_size] = kind;
+        _us[_size] = u;
+        _vs[_size] = v;
+        _edges[_size] = e;
+        _size += 1;
+    }
+
+    /** Check that I is the number of a recorded change. */
+    private void checkIndex(int i) {
+        if (i < 0 || i >= _size) {
+            throw new IndexOutOfBoundsException("no change #" + i);
+        }
+    }
+
+    /** Initial capacity of the arrays. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Change #I is (_kinds[I], _us[I], _vs[I], _edges[I]), for I <
+     *  _size. */
+    private Kind[] _kinds = new Kind[INITIAL_CAPACITY];
+    /** Changed vertices, or sources of changed edges. */
+    private int[] _us = new int[INITIAL_CAPACITY];
+    /** Targets of changed edges. */
+    private int[] _vs = new int[INITIAL_CAPACITY];
+    /** Ids of changed edges. */
+    private int[] _edges = new int[INITIAL_CAPACITY];
+    /** Number of changes recorded. */
+    private int _size;
+
+}
@@ -0,0 +1,327 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/* See restrictions in Graph.java. */
+
+/** The shortest paths from a source to all vertices of an edge-weighted
+ *  graph, found in parallel by delta-stepping.  Like SimpleShortestPaths,
+ *  it holds the weights and predecessors itself, and the client supplies
+ *  only the two-argument getWeight method, which is called from several
+ *  threads at once.  Estimated distances and bidirectional searches do
+ *  not apply; there is no destination.
+ *
+ *  Vertices are kept in buckets by weight, each bucket holding a range
+ *  of DELTA.  The least bucket is emptied by relaxing the light edges
+ *  (those weighing at most DELTA) of its vertices in parallel, as many
+ *  times as that puts vertices back into it, and then the heavy edges of
+ *  all the vertices it held, also in parallel.  Weights are lowered with
+ *  atomic compare-and-set, so that concurrent relaxations of the same
+ *  vertex keep the least.  Once all weights are final, the predecessors
+ *  are chosen by a parallel breadth-first search of the edges that lie
+ *  on shortest paths.  A small DELTA approaches Dijkstra's algorithm,
+ *  with little parallelism; a large one approaches Bellman-Ford, with
+ *  wasted relaxations.  The default is the mean edge weight.
+ *  @author Tina Nguyen
+ */
+abstract class DeltaSteppingShortestPaths extends ShortestPaths {
+
+    /** The shortest paths in G from SOURCE.  The searches of
+     *  ShortestPaths are not used, and so neither is its heap. */
+    DeltaSteppingShortestPaths(Graph G, int source) {
+        super(G, source, 0, null, null, null);
+    }
+
+    /** Use buckets of width DELTA, which must be positive, in setPaths.
+     *  Initially, the width is the mean edge weight. */
+    void setDelta(double delta) {
+        if (!(delta > 0)) {
+            throw new IllegalArgumentException("non-positive bucket width");
+        }
+        _delta = delta;
+    }
+
+    @Override
+    public void setPaths() {
+        int n = _G.maxVertex() + 1;
+        double delta = _delta > 0 ? _delta : meanWeight();
+        _weights = new AtomicLongArray(n);
+        for (int v = 0; v < n; v += 1) {
+            _weights.set(v, INFINITY);
+        }
+        _predecessors = new int[n];
+        int source = getSource();
+        if (!_G.contains(source)) {
+            return;
+        }
+        _weights.set(source, 0);
+
+        TreeMap<Long, VertexList> buckets = new TreeMap<>();
+        bucket(buckets, delta, source).add(source);
+        int[] rounds = new int[n], phases = new int[n];
+        int round = 0, phase = 0;
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, VertexList> first = buckets.pollFirstEntry();
+            long index = first.getKey();
+            VertexList frontier = first.getValue(),
+                settled = new VertexList();
+            phase += 1;
+            while (frontier != null) {
+                round += 1;
+                VertexList current = new VertexList();
+                for (int i = 0; i < frontier._size; i += 1) {
+                    int v = frontier._vertices[i];
+                    if (rounds[v] != round
+                        && bucketIndex(getWeight(v), delta) == index) {
+                        rounds[v] = round;
+                        current.add(v);
+                        if (phases[v] != phase) {
+                            phases[v] = phase;
+                            settled.add(v);
+                        }
+                    }
+                }
+                addAll(buckets, delta, relax(current, delta, true));
+                frontier = buckets.remove(index);
+            }
+            addAll(buckets, delta, relax(settled, delta, false));
+        }
+        setTree();
+    }
+
+    /** Not supported: there is no destination to search back from. */
+    @Override
+    void setBidirectional(boolean on) {
+        throw new IllegalStateException("delta-stepping is one-directional");
+    }
+
+    /** Not supported: delta-stepping uses its own buckets. */
+    @Override
+    void setEngine(Engine engine) {
+        throw new IllegalStateException("delta-stepping has its own engine");
+    }
+
+    /** Not supported: edge weights come from getWeight(U, V) only. */
+    @Override
+    void setGraphWeights(boolean on) {
+        throw new IllegalStateException(
+            "delta-stepping reads weights from getWeight");
+    }
+
+    @Override
+    public double getWeight(int v) {
+        if (_weights == null || v < 0 || v >= _weights.length()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Double.longBitsToDouble(_weights.get(v));
+    }
+
+    @Override
+    protected void setWeight(int v, double w) {
+        _weights.set(v, Double.doubleToLongBits(w));
+    }
+
+    @Override
+    public int getPredecessor(int v) {
+        if (_predecessors == null || v < 0 || v >= _predecessors.length) {
+            return 0;
+        }
+        return _predecessors[v];
+    }
+
+    @Override
+    protected void setPredecessor(int v, int u) {
+        _predecessors[v] = u;
+    }
+
+    /** Returns the current weight of edge (U, V) in the graph.  If (U, V)
+     *  is not in the graph, returns positive infinity.  May be called
+     *  from several threads at once. */
+    @Override
+    protected abstract double getWeight(int u, int v);
+
+    /** A growable list of vertices. */
+    private static class VertexList {
+        /** Add V to the end of me. */
+        void add(int v) {
+            if (_size == _vertices.length) {
+                _vertices = Arrays.copyOf(_vertices, 2 * _size);
+            }
+            _vertices[_size] = v;
+            _size += 1;
+        }
+
+        /** My vertices are _vertices[0 .. _size-1]. */
+        private int[] _vertices = new int[INITIAL_CAPACITY];
+        /** Number of vertices in me. */
+        private int _size;
+    }
+
+    /** Relax the light edges (LIGHT) or heavy edges (otherwise) of the
+     *  vertices in FRONTIER, where edges weighing at most DELTA are light,
+     *  in parallel for large frontiers.  Returns lists of the vertices
+     *  whose weights went down. */
+    private VertexList[] relax(VertexList frontier, double delta,
+                               boolean light) {
+        int size = frontier._size;
+        int chunks =
+            Math.max(1, Math.min(PARALLELISM * 4, size / MIN_CHUNK));
+        VertexList[] lowered = new VertexList[chunks];
+        IntStream range = IntStream.range(0, chunks);
+        if (chunks > 1) {
+            range = range.parallel();
+        }
+        range.forEach(c -> {
+            VertexList out = new VertexList();
+            for (int i = (int) ((long) c * size / chunks);
+                 i < (int) ((long) (c + 1) * size / chunks); i += 1) {
+                int u = frontier._vertices[i];
+                double weight = getWeight(u);
+                for (IntIteration it = _G.successorIteration(u);
+                     it.hasNext();) {
+                    int v = it.nextInt();
+                    double w = getWeight(u, v);
+                    if ((w <= delta) == light && lower(v, weight + w)) {
+                        out.add(v);
+                    }
+                }
+            }
+            lowered[c] = out;
+        });
+        return lowered;
+    }
+
+    /** Lower the weight of V to W if that is less, atomically.  Returns
+     *  true iff it was lowered. */
+    private boolean lower(int v, double w) {
+        long bits = Double.doubleToLongBits(w);
+        for (long old = _weights.get(v); bits < old;
+             old = _weights.get(v)) {
+            if (_weights.compareAndSet(v, old, bits)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Add the vertices in LISTS to BUCKETS, whose buckets have width
+     *  DELTA, according to their current weights. */
+    private void addAll(TreeMap<Long, VertexList> buckets, double delta,
+                        VertexList[] lists) {
+        for (VertexList list : lists) {
+            for (int i = 0; i < list._size; i += 1) {
+                int v = list._vertices[i];
+                bucket(buckets, delta, v).add(v);
+            }
+        }
+    }
+
+    /** Returns the bucket of BUCKETS, whose buckets have width DELTA, for
+     *  the current weight of V, creating it if needed. */
+    private VertexList bucket(TreeMap<Long, VertexList> buckets,
+                              double delta, int v) {
+        return buckets.computeIfAbsent(bucketIndex(getWeight(v), delta),
+                                       k -> new VertexList());
+    }
+
+    /** Returns the index of the bucket of width DELTA holding weight W. */
+    private static long bucketIndex(double w, double delta) {
+        return (long) Math.floor(w / delta);
+    }
+
+    /** Returns the mean weight of the edges of my graph, or 1 if that is
+     *  not positive. */
+    private double meanWeight() {
+        int n = _G.maxVertex() + 1;
+        double total = IntStream.range(1, n).parallel()
+            .filter(_G::contains)
+            .mapToDouble(u -> {
+                double sum = 0;
+                for (IntIteration it = _G.successorIteration(u);
+                     it.hasNext();) {
+                    sum += getWeight(u, it.nextInt());
+                }
+                return sum;
+            }).sum();
+        long count = IntStream.range(1, n).parallel()
+            .filter(_G::contains).mapToLong(_G::outDegree).sum();
+        double mean = total / count;
+        return mean > 0 && mean < Double.POSITIVE_INFINITY ? mean : 1;
+    }
+
+    /** Set the predecessors to a shortest-path tree of the final weights,
+     *  found by a parallel breadth-first search from the source over the
+     *  edges (U, V) where the weight of U plus that of the edge is the
+     *  weight of V. */
+    private void setTree() {
+        int source = getSource();
+        AtomicIntegerArray claims =
+            new AtomicIntegerArray(_G.maxVertex() + 1);
+        claims.set(source, source);
+        VertexList frontier = new VertexList();
+        frontier.add(source);
+        while (frontier._size > 0) {
+            VertexList current = frontier;
+            int size = current._size;
+            int chunks =
+                Math.max(1, Math.min(PARALLELISM * 4, size / MIN_CHUNK));
+            VertexList[] next = new VertexList[chunks];
+            IntStream range = IntStream.range(0, chunks);
+            if (chunks > 1) {
+                range = range.parallel();
+            }
+            range.forEach(c -> {
+                VertexList out = new VertexList();
+                for (int i = (int) ((long) c * size / chunks);
+                     i < (int) ((long) (c + 1) * size / chunks); i += 1) {
+                    int u = current._vertices[i];
+                    double weight = getWeight(u);
+                    for (IntIteration it = _G.successorIteration(u);
+                         it.hasNext();) {
+                        int v = it.nextInt();
+                        if (weight + getWeight(u, v) == getWeight(v)
+                            && claims.compareAndSet(v, 0, u)) {
+                            out.add(v);
+                        }
+                    }
+                }
+                next[c] = out;
+            });
+            frontier = new VertexList();
+            for (VertexList list : next) {
+                for (int i = 0; i < list._size; i += 1) {
+                    frontier.add(list._vertices[i]);
+                }
+            }
+        }
+        for (int v = 0; v < _predecessors.length; v += 1) {
+            _predecessors[v] = v == source ? 0 : claims.get(v);
+        }
+    }
+
+    /** Bits of positive infinity, as stored in _weights. */
+    private static final long INFINITY =
+        Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+    /** Number of threads available for relaxing edges. */
+    private static final int PARALLELISM =
+        Runtime.getRuntime().availableProcessors();
+    /** Smallest number of vertices worth handing to a separate task. */
+    private static final int MIN_CHUNK = 256;
+    /** Initial capacity of a VertexList. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Bucket width, or 0 for the default. */
+    private double _delta;
+    /** Bits of the vertex weights from the last setPaths.  For
+     *  non-negative doubles, the order of the bits as longs is the order
+     *  of the values. */
+    private AtomicLongArray _weights;
+    /** Predecessors from the last setPaths. */
+    private int[] _predecessors;
+
+}
@@ -1,18 +1,121 @@
 package graph;
 import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 /* See restrictions in Graph.java. */
 
 /** Implements a depth-first traversal of a graph.  Generally, the
  *  client will extend this class, overriding the visit and
  *  postVisit methods, as desired (by default, they do nothing).
+ *
+ *  Within this package, a traversal may instead be created to run on a
+ *  stack of frames, one for each vertex on the current path from the
+ *  start vertex, holding that vertex and its place in its list of
+ *  successors.  It then needs space proportional to the depth of the
+ *  search rather than to the number of edges, and delivers the same
+ *  visits and post-visits in the same order as the fringe.  In this mode, successors are
+ *  examined with processSuccessor one at a time as the search reaches
+ *  them, processSuccessors and the fringe are unused, and the graph
+ *  must not be modified during a traversal.  The depth of a vertex is
+ *  that of its frame, and so the length of the path by which the search
+ *  reached it.
  *  @author Tina Nguyen
  */
 public class DepthFirstTraversal extends Traversal {
 
     /** A depth-first Traversal of G. */
     protected DepthFirstTraversal(Graph G) {
+        this(G, false);
+    }
+
+    /** A depth-first Traversal of G, which runs on a stack of frames iff
+     *  FRAMES. */
+    DepthFirstTraversal(Graph G, boolean frames) {
         super(G, Collections.asLifoQueue(new ArrayDeque<>()));
+        if (frames) {
+            _path = new int[INITIAL_DEPTH];
+            _cursors = new IntIteration[INITIAL_DEPTH];
+        }
+    }
+
+    @Override
+    public void traverse(Collection<Integer> V0) {
+        if (_path == null) {
+            super.traverse(V0);
+            return;
+        }
+        clearFrames();
+        _starts = new int[V0.size()];
+        for (int v : V0) {
+            _starts[_numStarts] = v;
+            _numStarts += 1;
+        }
+        resume();
+    }
+
+    @Override
+    public void traverse(int v0) {
+        if (_path == null) {
+            super.traverse(v0);
+            return;
+        }
+        clearFrames();
+        _starts = new int[] { v0 };
+        _numStarts = 1;
+        resume();
+    }
+
+    @Override
+    void resume() {
+        if (_path == null) {
+            super.resume();
+            return;
+        }
+        int limit = visitLimit();
+        int visits = 0;
+        setInterrupted(false);
+        while (unfinished()) {
+            if (_depth == 0) {
+                _numStarts -= 1;
+                int v0 = _starts[_numStarts];
+                if (!marked(v0)) {
+                    visits += 1;
+                    if (!enter(v0) || visits >= limit) {
+                        setInterrupted(unfinished());
+                        return;
+                    }
+                }
+                continue;
+            }
+            int u = _path[_depth - 1];
+            IntIteration succ = _cursors[_depth - 1];
+            if (_depth <= depthLimit() && succ.hasNext()) {
+                int v = succ.nextInt();
+                if (processSuccessor(u, v) && !marked(v)) {
+                    visits += 1;
+                    if (!enter(v) || visits >= limit) {
+                        setInterrupted(unfinished());
+                        return;
+                    }
+                }
+            } else {
+                _depth -= 1;
+                _cursors[_depth] = null;
+                if (shouldPostVisit(u) && !postVisit(u)) {
+                    setInterrupted(unfinished());
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (_path != null) {
+            clearFrames();
+        }
     }
 
     @Override
@@ -30,4 +133,51 @@ public class DepthFirstTraversal extends Traversal {
         return true;
     }
 
+    /** Mark and visit V, and push a frame for it.  Its successors are
+     *  taken last to first (the order in which the fringe would deliver
+     *  them), or first to last if reverseSuccessors(V).  Returns the
+     *  value of visit(V). */
+    private boolean enter(int v) {
+        mark(v);
+        boolean result = visit(v);
+        if (_depth == _path.length) {
+            _path = Arrays.copyOf(_path, 2 * _depth);
+            _cursors = Arrays.copyOf(_cursors, 2 * _depth);
+        }
+        _path[_depth] = v;
+        _cursors[_depth] = reverseSuccessors(v)
+            ? graph().successorIteration(v)
+            : graph().reverseSuccessorIteration(v);
+        _depth += 1;
+        return result;
+    }
+
+    /** Returns true iff the current traversal has work left: a frame on
+     *  the stack or a starting vertex not yet taken. */
+    private boolean unfinished() {
+        return _depth > 0 || _numStarts > 0;
+    }
+
+    /** Empty the frame stack and the list of starting vertices. */
+    private void clearFrames() {
+        Arrays.fill(_cursors, 0, _depth, null);
+        _depth = 0;
+        _numStarts = 0;
+    }
+
+    /** Initial capacity of the frame stack. */
+    private static final int INITIAL_DEPTH = 16;
+
+    /** Vertices on the current path, from the start, or null if I use the
+     *  fringe. */
+    private int[] _path;
+    /** _cursors[K] is the remaining successors of _path[K]. */
+    private IntIteration[] _cursors;
+    /** Number of frames on the stack. */
+    private int _depth;
+    /** Starting vertices not yet taken, with the next one last. */
+    private int[] _starts;
+    /** Number of entries in _starts. */
+    private int _numStarts;
+
 }
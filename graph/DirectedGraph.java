@@ -1,7 +1,5 @@
 package graph;
 
-import java.util.ArrayList;
-
 /* See restrictions in Graph.java. */
 
 /** Represents a general unlabeled directed graph whose vertices are denoted by
@@ -11,6 +9,20 @@ import java.util.ArrayList;
  */
 public class DirectedGraph extends GraphObj {
 
+    /** An empty directed graph. */
+    public DirectedGraph() {
+        this(true);
+    }
+
+    /** An empty directed graph that keeps a hash index of its edges iff
+     *  INDEXEDGES.  The index makes contains(u, v), edge removal, and
+     *  edge-label lookup take constant expected time.  Without it, they
+     *  scan the adjacency lists of the endpoints, but each edge takes
+     *  roughly 30 fewer bytes. */
+    DirectedGraph(boolean indexEdges) {
+        super(indexEdges);
+    }
+
     @Override
     public boolean isDirected() {
         return true;
@@ -18,47 +30,12 @@ public class DirectedGraph extends GraphObj {
 
     @Override
     public int inDegree(int v) {
-        Iteration<Integer> pred = predecessors(v);
-        int size = 0;
-        for (int c : pred) {
-            size += 1;
-        }
-        return size;
+        return incoming().size(v);
     }
 
     @Override
     public Iteration<Integer> predecessors(int v) {
-        int i = 0;
-        ArrayList<Integer> list = new ArrayList<>();
-        while (helpPred(v, i) != 0) {
-            list.add(helpPred(v, i));
-            i += 1;
-        }
-        return Iteration.iteration(list);
-    }
-
-    /** Return V's predecessor of I.
-     * Helper function for predecessors(int v). */
-    private int helpPred(int v, int i) {
-        Iteration<int[]> edges = this.edges();
-        ArrayList<int[]> result = new ArrayList<>();
-        while (edges.hasNext()) {
-            int[] curr = edges.next();
-            result.add(curr);
-        }
-
-        if (contains(v)) {
-            ArrayList<int[]> pred = new ArrayList<>();
-            for (int[] x: result) {
-                if (x[1] == v) {
-                    pred.add(x);
-                }
-            }
-            if (pred.size() > i) {
-                return pred.get(i)[0];
-            }
-        }
-        return 0;
+        return Iteration.iteration(incoming().toArray(v));
     }
 
 }
@@ -0,0 +1,143 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/* See restrictions in Graph.java. */
+
+/** The distances in a weighted graph from each of a list of sources to
+ *  each of a list of targets, and optionally the shortest-path trees
+ *  from the sources.  There is one full search of the graph from each
+ *  source.  The searches are spread over the threads of the common
+ *  ForkJoinPool, each thread reusing one SimpleShortestPaths.Workspace
+ *  for all the searches it runs, and all of them reading the same
+ *  graph, which must not change while the matrix is being computed.
+ *  @author Tina Nguyen
+ */
+class DistanceMatrix {
+
+    /** The distances in G from SOURCES[i] to TARGETS[j], for all i and j,
+     *  where edge (U, V) weighs WEIGHT.weight(U, V), which must not be
+     *  negative.  WEIGHT is called from several threads at once. */
+    DistanceMatrix(Graph G, EdgeWeight weight, int[] sources,
+                   int[] targets) {
+        this(G, weight, sources, targets, false);
+    }
+
+    /** The distances in G from SOURCES[i] to TARGETS[j], for all i and j,
+     *  where edge (U, V) weighs WEIGHT.weight(U, V), which must not be
+     *  negative, keeping the shortest-path tree from each source iff
+     *  TREES.  WEIGHT is called from several threads at once. */
+    DistanceMatrix(Graph G, EdgeWeight weight, int[] sources,
+                   int[] targets, boolean trees) {
+        for (int v : sources) {
+            if (!G.contains(v)) {
+                throw new IllegalArgumentException("vertex not from Graph");
+            }
+        }
+        _sources = sources.clone();
+        _targets = targets.clone();
+        _distances = new double[sources.length][targets.length];
+        _trees = trees ? new int[sources.length][] : null;
+        ThreadLocal<SimpleShortestPaths.Workspace> workspaces =
+            ThreadLocal.withInitial(SimpleShortestPaths.Workspace::new);
+        IntStream.range(0, sources.length).parallel().forEach(i -> {
+            Search search =
+                new Search(G, _sources[i], weight, workspaces.get());
+            search.setPaths();
+            double[] row = _distances[i];
+            for (int j = 0; j < _targets.length; j += 1) {
+                row[j] = search.getWeight(_targets[j]);
+            }
+            if (_trees != null) {
+                int[] tree = new int[G.maxVertex() + 1];
+                for (int v = 1; v < tree.length; v += 1) {
+                    tree[v] = search.getPredecessor(v);
+                }
+                _trees[i] = tree;
+            }
+        });
+    }
+
+    /** Returns the matrix of distances, whose entry [i][j] is the
+     *  distance from source #i to target #j (infinite if there is no
+     *  path). */
+    double[][] distances() {
+        return _distances;
+    }
+
+    /** Returns the distance from source #I to target #J. */
+    double distance(int i, int j) {
+        return _distances[i][j];
+    }
+
+    /** Returns the shortest-path tree from source #I, indexed by vertex:
+     *  the predecessor of each vertex reached on a shortest path from
+     *  the source, and 0 for the source and vertices not reached.  Only
+     *  available if the trees were kept. */
+    int[] tree(int i) {
+        if (_trees == null) {
+            throw new IllegalStateException("trees were not kept");
+        }
+        return _trees[i];
+    }
+
+    /** Returns a shortest path from source #I to target #J, as a list of
+     *  vertices, or an empty list if there is none.  Only available if
+     *  the trees were kept. */
+    List<Integer> path(int i, int j) {
+        int[] tree = tree(i);
+        LinkedList<Integer> path = new LinkedList<>();
+        if (_distances[i][j] == Double.POSITIVE_INFINITY) {
+            return path;
+        }
+        for (int v = _targets[j]; v != _sources[i]; v = tree[v]) {
+            path.addFirst(v);
+        }
+        path.addFirst(_sources[i]);
+        return path;
+    }
+
+    /** Returns the sources, in order. */
+    int[] sources() {
+        return Arrays.copyOf(_sources, _sources.length);
+    }
+
+    /** Returns the targets, in order. */
+    int[] targets() {
+        return Arrays.copyOf(_targets, _targets.length);
+    }
+
+    /** A search for all shortest paths from one source. */
+    private static class Search extends SimpleShortestPaths {
+        /** The shortest paths in G from SOURCE, where edge (U, V) weighs
+         *  WEIGHT.weight(U, V), kept in WORKSPACE. */
+        Search(Graph G, int source, EdgeWeight weight,
+               Workspace workspace) {
+            super(G, source, 0, workspace);
+            _weight = weight;
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return _weight.weight(u, v);
+        }
+
+        /** Edge weights. */
+        private final EdgeWeight _weight;
+    }
+
+    /** The sources. */
+    private final int[] _sources;
+    /** The targets. */
+    private final int[] _targets;
+    /** _distances[i][j] is the distance from _sources[i] to
+     *  _targets[j]. */
+    private final double[][] _distances;
+    /** _trees[i] is the shortest-path tree from _sources[i], or _trees is
+     *  null if they are not kept. */
+    private final int[][] _trees;
+
+}
@@ -0,0 +1,158 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A hash table mapping edges (U, V) to positive ints, used by GraphObj
+ *  to find edges in constant expected time.  Keys are the two vertex
+ *  numbers packed into a long, and are kept in open-addressed arrays
+ *  with linear probing, so that an entry costs twelve bytes (at the
+ *  table's load factor, about twice that) and no objects.
+ *  @author Tina Nguyen
+ */
+class EdgeIndex {
+
+    /** An empty index. */
+    EdgeIndex() {
+        this(0);
+    }
+
+    /** An empty index with room for N entries before it must grow. */
+    EdgeIndex(int n) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 2 * n) {
+            capacity *= 2;
+        }
+        _keys = new long[capacity];
+        _values = new int[capacity];
+    }
+
+    /** Returns the key for edge (U, V). */
+    static long key(int u, int v) {
+        return ((long) u << 32) | (v & 0xffffffffL);
+    }
+
+    /** Replace my contents with those of OTHER, which may not be used
+     *  afterwards. */
+    void take(EdgeIndex other) {
+        _keys = other._keys;
+        _values = other._values;
+        _size = other._size;
+    }
+
+    /** Returns the number of entries in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns the value stored for KEY, or 0 if there is none. */
+    int get(long key) {
+        int mask = _keys.length - 1;
+        for (int i = slot(key, mask); _keys[i] != FREE; i = (i + 1) & mask) {
+            if (_keys[i] == key) {
+                return _values[i];
+            }
+        }
+        return 0;
+    }
+
+    /** Set the value for KEY to VALUE, which must be positive. */
+    void put(long key, int value) {
+        int i = find(key);
+        if (_keys[i] == FREE) {
+            _keys[i] = key;
+            _size += 1;
+        }
+        _values[i] = value;
+    }
+
+    /** If KEY is not present, set its value to VALUE, which must be
+     *  positive, and return 0.  Otherwise, return its value. */
+    int putIfAbsent(long key, int value) {
+        int i = find(key);
+        if (_keys[i] != FREE) {
+            return _values[i];
+        }
+        _keys[i] = key;
+        _values[i] = value;
+        _size += 1;
+        return 0;
+    }
+
+    /** Returns the slot holding KEY, or else the FREE slot where it would
+     *  go, first growing the table if adding KEY would overfill it. */
+    private int find(long key) {
+        if (2 * (_size + 1) > _keys.length) {
+            resize(2 * _keys.length);
+        }
+        int mask = _keys.length - 1;
+        int i = slot(key, mask);
+        while (_keys[i] != FREE && _keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /** Remove KEY, returning its value, or 0 if it is not present. */
+    int remove(long key) {
+        int mask = _keys.length - 1;
+        int i = slot(key, mask);
+        while (_keys[i] != key) {
+            if (_keys[i] == FREE) {
+                return 0;
+            }
+            i = (i + 1) & mask;
+        }
+        int value = _values[i];
+        _size -= 1;
+        for (int j = (i + 1) & mask; _keys[j] != FREE; j = (j + 1) & mask) {
+            int home = slot(_keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                _keys[i] = _keys[j];
+                _values[i] = _values[j];
+                i = j;
+            }
+        }
+        _keys[i] = FREE;
+        _values[i] = 0;
+        return value;
+    }
+
+    /** Returns the home slot of KEY in a table with index mask MASK. */
+    private static int slot(long key, int mask) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /** Rehash my entries into tables with CAPACITY slots. */
+    private void resize(int capacity) {
+        long[] keys = _keys;
+        int[] values = _values;
+        _keys = new long[capacity];
+        _values = new int[capacity];
+        int mask = capacity - 1;
+        for (int k = 0; k < keys.length; k += 1) {
+            if (keys[k] != FREE) {
+                int i = slot(keys[k], mask);
+                while (_keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                _keys[i] = keys[k];
+                _values[i] = values[k];
+            }
+        }
+    }
+
+    /** Key marking an unused slot.  No edge has it, since vertex numbers
+     *  are positive. */
+    private static final long FREE = 0;
+    /** Initial number of slots (a power of 2). */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Keys of the entries, or FREE. */
+    private long[] _keys;
+    /** Values of the entries, parallel to _keys. */
+    private int[] _values;
+    /** Number of entries. */
+    private int _size;
+
+}
@@ -0,0 +1,15 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** The weights of the edges of a graph, as used by searches that are
+ *  not subclasses of ShortestPaths.
+ *  @author Tina Nguyen
+ */
+@FunctionalInterface
+interface EdgeWeight {
+
+    /** Returns the weight of the edge (U, V), which must be present. */
+    double weight(int u, int v);
+
+}
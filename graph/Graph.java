@@ -1,5 +1,7 @@
 package graph;
 
+import java.util.Arrays;
+
 /* Do not add or remove public or protected members, or modify the signatures of
  * any public methods.  Do not add or remove public classes.
  *
@@ -107,6 +109,79 @@ public abstract class Graph {
         }
     }
 
+    /** Returns the successors of V as an IntIteration, for use by the
+     *  algorithms in this package.  Unlike successors(V), the result
+     *  may read my representation directly rather than a copy, and so
+     *  must not be used across modifications of me.  By default, it
+     *  unboxes successors(V). */
+    IntIteration successorIteration(int v) {
+        return IntIteration.of(successors(v));
+    }
+
+    /** Returns the successors of V in reverse order, under the same
+     *  conditions as successorIteration.  By default, it copies them. */
+    IntIteration reverseSuccessorIteration(int v) {
+        int[] succ = new int[outDegree(v)];
+        int n = 0;
+        for (IntIteration it = successorIteration(v); it.hasNext();) {
+            if (n == succ.length) {
+                succ = Arrays.copyOf(succ, 2 * n + 1);
+            }
+            succ[n] = it.nextInt();
+            n += 1;
+        }
+        return Iteration.reverseIteration(succ, 0, n);
+    }
+
+    /** Returns the predecessors of V as an IntIteration, under the same
+     *  conditions as successorIteration. */
+    IntIteration predecessorIteration(int v) {
+        return IntIteration.of(predecessors(v));
+    }
+
+    /** Returns my vertices in numerical order as an IntIteration, under
+     *  the same conditions as successorIteration. */
+    IntIteration vertexIteration() {
+        return IntIteration.of(vertices());
+    }
+
+    /** Returns the table of the successors of each of my vertices, with
+     *  the ids of the edges to them, under the same conditions as
+     *  successorIteration, or null if I do not keep one.  By default,
+     *  null. */
+    Adjacency successorTable() {
+        return null;
+    }
+
+    /** Returns the table of the predecessors of each of my vertices, as
+     *  for successorTable. */
+    Adjacency predecessorTable() {
+        return null;
+    }
+
+    /** Returns a number that changes whenever I am modified, or
+     *  UNVERSIONED if I do not keep track.  Numbers never repeat over my
+     *  lifetime, so that a result computed from me is still valid iff my
+     *  version is what it was then.  By default, UNVERSIONED. */
+    long version() {
+        return UNVERSIONED;
+    }
+
+    /** The version of graphs that do not keep track of their
+     *  modifications. */
+    static final long UNVERSIONED = -1;
+
+    /** Report each later modification of me to LISTENER, until it is
+     *  removed by removeListener.  By default, LISTENER is ignored, as
+     *  is right for graphs that never change.  Graphs that change but do
+     *  not report it are UNVERSIONED, which is how clients tell. */
+    void addListener(GraphListener listener) {
+    }
+
+    /** Stop reporting modifications to LISTENER, if it was added. */
+    void removeListener(GraphListener listener) {
+    }
+
     /** Returns a unique positive identifier for the edge (U, V), if it
      *  is present, or 0 otherwise.  If edges are not removed from the graph,
      *  this value should be a small multiple of the number of the edges in
@@ -0,0 +1,323 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/* See restrictions in Graph.java. */
+
+/** Builds graphs with vertices 1 .. N from lists of edges, all at once.
+ *  Edges are collected with add, and the graph is then produced by
+ *  directed, undirected, or snapshot.  Building sizes all storage up
+ *  front and fills the adjacency lists with a stable counting sort of
+ *  the edges by source, spread over the threads of the common
+ *  ForkJoinPool.  The result is the same as adding the vertices and
+ *  then the edges, in order, with Graph.add: duplicate edges are
+ *  ignored, successors appear in the order their edges were added, and
+ *  edge ids count up from 1 in that order.
+ *  @author Tina Nguyen
+ */
+class GraphBuilder {
+
+    /** A builder for graphs with vertices 1 .. NUMVERTICES and, so far,
+     *  no edges. */
+    GraphBuilder(int numVertices) {
+        if (numVertices < 0) {
+            throw new IllegalArgumentException("negative vertex count");
+        }
+        _numVertices = numVertices;
+        _sources = new int[INITIAL_EDGES];
+        _targets = new int[INITIAL_EDGES];
+    }
+
+    /** Add the edge (U, V), which is directed from U to V in a directed
+     *  graph.  U and V must be in 1 .. vertexSize().  Returns this
+     *  builder. */
+    GraphBuilder add(int u, int v) {
+        checkVertex(u);
+        checkVertex(v);
+        reserve(_numEdges + 1);
+        _sources[_numEdges] = u;
+        _targets[_numEdges] = v;
+        _numEdges += 1;
+        return this;
+    }
+
+    /** Add the edges (SOURCES[i], TARGETS[i]), in order of increasing
+     *  i, as for add(SOURCES[i], TARGETS[i]).  Returns this builder. */
+    GraphBuilder add(int[] sources, int[] targets) {
+        if (sources.length != targets.length) {
+            throw new IllegalArgumentException("edge arrays differ in length");
+        }
+        for (int i = 0; i < sources.length; i += 1) {
+            checkVertex(sources[i]);
+            checkVertex(targets[i]);
+        }
+        reserve(_numEdges + sources.length);
+        System.arraycopy(sources, 0, _sources, _numEdges, sources.length);
+        System.arraycopy(targets, 0, _targets, _numEdges, targets.length);
+        _numEdges += sources.length;
+        return this;
+    }
+
+    /** Returns the number of vertices in the graphs I build. */
+    int vertexSize() {
+        return _numVertices;
+    }
+
+    /** Returns the number of edges added to me, counting duplicates. */
+    int edgeSize() {
+        return _numEdges;
+    }
+
+    /** Returns a new DirectedGraph with my vertices and edges. */
+    DirectedGraph directed() {
+        return directed(true);
+    }
+
+    /** Returns a new DirectedGraph with my vertices and edges, which keeps
+     *  a hash index of its edges iff INDEXEDGES. */
+    DirectedGraph directed(boolean indexEdges) {
+        DirectedGraph G = new DirectedGraph(indexEdges);
+        EdgeIndex index = new EdgeIndex(_numEdges);
+        int[][] edges = distinctEdges(index, true);
+        int m = edges[0].length;
+        G.load(_numVertices, m,
+               adjacency(sortBySource(edges[0], edges[1], edges[2])),
+               adjacency(sortBySource(edges[1], edges[0], edges[2])),
+               index);
+        return G;
+    }
+
+    /** Returns a new UndirectedGraph with my vertices and edges. */
+    UndirectedGraph undirected() {
+        return undirected(true);
+    }
+
+    /** Returns a new UndirectedGraph with my vertices and edges, which
+     *  keeps a hash index of its edges iff INDEXEDGES. */
+    UndirectedGraph undirected(boolean indexEdges) {
+        UndirectedGraph G = new UndirectedGraph(indexEdges);
+        EdgeIndex index = new EdgeIndex(_numEdges);
+        int[][] edges = bothWays(distinctEdges(index, false));
+        G.load(_numVertices, index.size(),
+               adjacency(sortBySource(edges[0], edges[1], edges[2])),
+               null, index);
+        return G;
+    }
+
+    /** Returns a new immutable graph with my vertices and edges, stored in
+     *  compressed-sparse-row form, which is directed iff DIRECTED. */
+    Graph snapshot(boolean directed) {
+        EdgeIndex index = new EdgeIndex(_numEdges);
+        int[][] edges = distinctEdges(index, directed);
+        if (!directed) {
+            edges = bothWays(edges);
+        }
+        Rows rows = sortBySource(edges[0], edges[1], edges[2]);
+        return new CSRGraph(directed, _numVertices, rows._offsets,
+                            rows._values);
+    }
+
+    /** Throw an exception if V is not a vertex number for my graphs. */
+    private void checkVertex(int v) {
+        if (v < 1 || v > _numVertices) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    /** Make room for at least N edges. */
+    private void reserve(int n) {
+        if (n > _sources.length) {
+            int size = Math.max(n, 2 * _sources.length);
+            _sources = Arrays.copyOf(_sources, size);
+            _targets = Arrays.copyOf(_targets, size);
+        }
+    }
+
+    /** Returns the first occurrences of my edges as three arrays: sources,
+     *  targets, and edge ids 1, 2, ....  Undirected edges (DIRECTED
+     *  false) are equal regardless of the order of their ends.  Fills
+     *  INDEX with the ids. */
+    private int[][] distinctEdges(EdgeIndex index, boolean directed) {
+        int[] ids = new int[_numEdges];
+        int m = 0;
+        for (int i = 0; i < _numEdges; i += 1) {
+            int u = _sources[i], v = _targets[i];
+            long key =
+                directed || u <= v ? EdgeIndex.key(u, v) : EdgeIndex.key(v, u);
+            if (index.putIfAbsent(key, m + 1) == 0) {
+                m += 1;
+                ids[i] = m;
+            }
+        }
+        int[] sources = new int[m], targets = new int[m];
+        for (int i = 0; i < _numEdges; i += 1) {
+            if (ids[i] != 0) {
+                sources[ids[i] - 1] = _sources[i];
+                targets[ids[i] - 1] = _targets[i];
+            }
+        }
+        int[] edgeIds = new int[m];
+        Arrays.setAll(edgeIds, e -> e + 1);
+        return new int[][] { sources, targets, edgeIds };
+    }
+
+    /** Returns the adjacency entries of the undirected EDGES (sources,
+     *  targets, ids): each edge (U, V) in turn as (U, V) and, unless U
+     *  is V, (V, U). */
+    private static int[][] bothWays(int[][] edges) {
+        int m = edges[0].length;
+        int n = m;
+        for (int e = 0; e < m; e += 1) {
+            if (edges[0][e] != edges[1][e]) {
+                n += 1;
+            }
+        }
+        int[] sources = new int[n], targets = new int[n], ids = new int[n];
+        for (int e = 0, k = 0; e < m; e += 1) {
+            int u = edges[0][e], v = edges[1][e];
+            sources[k] = u;
+            targets[k] = v;
+            ids[k] = edges[2][e];
+            k += 1;
+            if (u != v) {
+                sources[k] = v;
+                targets[k] = u;
+                ids[k] = edges[2][e];
+                k += 1;
+            }
+        }
+        return new int[][] { sources, targets, ids };
+    }
+
+    /** A list of values with ids, sorted by source vertex.  The values for
+     *  vertex V are _values[_offsets[V] .. _offsets[V+1]-1]. */
+    private static class Rows {
+        /** Start of the entries for each vertex, and the total at the
+         *  end. */
+        private int[] _offsets;
+        /** The values. */
+        private int[] _values;
+        /** The ids attached to _values. */
+        private int[] _ids;
+    }
+
+    /** Returns the entries (KEYS[i], VALUES[i], IDS[i]) sorted stably by
+     *  key, where keys are my vertices.  The entries are first scattered
+     *  into buckets of adjacent keys by chunks of entries in parallel,
+     *  and then each bucket is sorted by key in parallel with the
+     *  others. */
+    private Rows sortBySource(int[] keys, int[] values, int[] ids) {
+        final int len = keys.length;
+        final int keyRange = _numVertices + 1;
+        final int chunks =
+            Math.max(1, Math.min(PARALLELISM * 4, len / MIN_CHUNK));
+        final int buckets = Math.min(chunks, keyRange);
+        int[][] starts = new int[chunks][buckets];
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] count = starts[c];
+            for (int i = chunkStart(c, chunks, len);
+                 i < chunkStart(c + 1, chunks, len); i += 1) {
+                count[bucket(keys[i], buckets, keyRange)] += 1;
+            }
+        });
+        int[] bucketStart = new int[buckets + 1];
+        int pos = 0;
+        for (int b = 0; b < buckets; b += 1) {
+            bucketStart[b] = pos;
+            for (int c = 0; c < chunks; c += 1) {
+                int count = starts[c][b];
+                starts[c][b] = pos;
+                pos += count;
+            }
+        }
+        bucketStart[buckets] = len;
+
+        int[] bucketKeys = new int[len], bucketValues = new int[len],
+            bucketIds = new int[len];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] next = starts[c];
+            for (int i = chunkStart(c, chunks, len);
+                 i < chunkStart(c + 1, chunks, len); i += 1) {
+                int p = next[bucket(keys[i], buckets, keyRange)]++;
+                bucketKeys[p] = keys[i];
+                bucketValues[p] = values[i];
+                bucketIds[p] = ids[i];
+            }
+        });
+
+        Rows rows = new Rows();
+        rows._offsets = new int[keyRange + 1];
+        rows._values = new int[len];
+        rows._ids = new int[len];
+        IntStream.range(0, buckets).parallel().forEach(b -> {
+            int lo = chunkStart(b, buckets, keyRange),
+                hi = chunkStart(b + 1, buckets, keyRange);
+            int[] next = new int[hi - lo];
+            for (int i = bucketStart[b]; i < bucketStart[b + 1]; i += 1) {
+                next[bucketKeys[i] - lo] += 1;
+            }
+            int p = bucketStart[b];
+            for (int k = lo; k < hi; k += 1) {
+                rows._offsets[k] = p;
+                p += next[k - lo];
+                next[k - lo] = rows._offsets[k];
+            }
+            for (int i = bucketStart[b]; i < bucketStart[b + 1]; i += 1) {
+                int q = next[bucketKeys[i] - lo]++;
+                rows._values[q] = bucketValues[i];
+                rows._ids[q] = bucketIds[i];
+            }
+        });
+        rows._offsets[keyRange] = len;
+        return rows;
+    }
+
+    /** Returns the start of chunk C when dividing the range [0 .. N-1]
+     *  into CHUNKS nearly equal parts. */
+    private static int chunkStart(int c, int chunks, int n) {
+        return (int) ((long) c * n / chunks);
+    }
+
+    /** Returns the bucket of KEY: the C such that KEY is in
+     *  [chunkStart(C, BUCKETS, KEYRANGE) ..
+     *   chunkStart(C + 1, BUCKETS, KEYRANGE) - 1]. */
+    private static int bucket(int key, int buckets, int keyRange) {
+        return (int) (((long) (key + 1) * buckets - 1) / keyRange);
+    }
+
+    /** Returns an adjacency table holding ROWS, built in parallel. */
+    private Adjacency adjacency(Rows rows) {
+        int n = _numVertices + 1;
+        int[][] lists = new int[n][], ids = new int[n][];
+        int[] sizes = new int[n];
+        IntStream.range(1, n).parallel().forEach(v -> {
+            int from = rows._offsets[v], to = rows._offsets[v + 1];
+            if (from < to) {
+                lists[v] = Arrays.copyOfRange(rows._values, from, to);
+                ids[v] = Arrays.copyOfRange(rows._ids, from, to);
+                sizes[v] = to - from;
+            }
+        });
+        return new Adjacency(lists, ids, sizes);
+    }
+
+    /** Initial capacity for edges. */
+    private static final int INITIAL_EDGES = 16;
+    /** Number of threads available for sorting. */
+    private static final int PARALLELISM =
+        Runtime.getRuntime().availableProcessors();
+    /** Smallest number of entries worth handing to a separate task. */
+    private static final int MIN_CHUNK = 1 << 14;
+
+    /** Number of vertices. */
+    private final int _numVertices;
+    /** Number of edges added. */
+    private int _numEdges;
+    /** Sources of the edges added, in order. */
+    private int[] _sources;
+    /** Targets of the edges added, in order. */
+    private int[] _targets;
+
+}
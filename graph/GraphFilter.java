@@ -2,13 +2,20 @@ package graph;
 
 /** A Graph that delegates all its operations to another, preexisting
  *  Graph object.  This is intended to be extended, and selected methods
- *  overridden, as needed.
+ *  overridden, as needed.  The unboxed iterations and adjacency
+ *  tables used inside the package are delegated too, but only while
+ *  they stand for the public accessors: if an extension overrides
+ *  vertices, successors, or predecessors, the iterations are derived
+ *  from those instead, and there are no tables.
  *  @author P. N. Hilfinger */
 public class GraphFilter extends Graph {
 
     /** A Graph that delegates all operations to G. */
     public GraphFilter(Graph G) {
         _G = G;
+        _transparent = inherits("vertices")
+            && inherits("successors", int.class)
+            && inherits("predecessors", int.class);
     }
 
     @Override
@@ -91,18 +98,82 @@ public class GraphFilter extends Graph {
         return _G.edges();
     }
 
+    @Override
+    IntIteration successorIteration(int v) {
+        return _transparent ? _G.successorIteration(v)
+            : super.successorIteration(v);
+    }
+
+    @Override
+    IntIteration reverseSuccessorIteration(int v) {
+        return _transparent ? _G.reverseSuccessorIteration(v)
+            : super.reverseSuccessorIteration(v);
+    }
+
+    @Override
+    IntIteration predecessorIteration(int v) {
+        return _transparent ? _G.predecessorIteration(v)
+            : super.predecessorIteration(v);
+    }
+
+    @Override
+    IntIteration vertexIteration() {
+        return _transparent ? _G.vertexIteration() : super.vertexIteration();
+    }
+
+    @Override
+    Adjacency successorTable() {
+        return _transparent ? _G.successorTable() : null;
+    }
+
+    @Override
+    Adjacency predecessorTable() {
+        return _transparent ? _G.predecessorTable() : null;
+    }
+
     @Override
     protected int edgeId(int u, int v) {
         return _G.edgeId(u, v);
     }
 
+    @Override
+    long version() {
+        return _G.version();
+    }
+
+    @Override
+    void addListener(GraphListener listener) {
+        _G.addListener(listener);
+    }
+
+    @Override
+    void removeListener(GraphListener listener) {
+        _G.removeListener(listener);
+    }
+
     @Override
     protected void checkMyVertex(int v) {
         _G.checkMyVertex(v);
     }
 
+    /** Returns true iff my class inherits its public method NAME, with
+     *  parameter types PARAMS, from GraphFilter rather than overriding
+     *  it. */
+    private boolean inherits(String name, Class<?>... params) {
+        try {
+            return getClass().getMethod(name, params).getDeclaringClass()
+                == GraphFilter.class;
+        } catch (NoSuchMethodException excp) {
+            return false;
+        }
+    }
+
     /** My underlying graph. */
     private final Graph _G;
+    /** True iff my vertices, successors, and predecessors are those of
+     *  _G, so that _G's unboxed iterations and adjacency tables may
+     *  stand for them. */
+    private final boolean _transparent;
 }
 
 
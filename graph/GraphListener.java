@@ -0,0 +1,72 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** Receives reports of the modifications of a graph, as registered with
+ *  its addListener method, so that structures derived from the graph can
+ *  be brought up to date incrementally rather than rebuilt.  Each report
+ *  is made just after the modification it describes.  When a vertex is
+ *  removed, the removal of each of its edges is reported first, while
+ *  the graph is still being updated, so that a listener must not examine
+ *  or modify the graph until the vertex removal itself is reported.  By
+ *  default, each report is ignored.
+ *  @author Tina Nguyen
+ */
+interface GraphListener {
+
+    /** Report that vertex V was added. */
+    default void vertexAdded(int v) {
+    }
+
+    /** Report that vertex V, whose edges have already been reported
+     *  removed, was removed. */
+    default void vertexRemoved(int v) {
+    }
+
+    /** Report that the edge (U, V), with id E, was added. */
+    default void edgeAdded(int u, int v, int e) {
+    }
+
+    /** Report that the edge (U, V), whose id was E, was removed. */
+    default void edgeRemoved(int u, int v, int e) {
+    }
+
+    /** Report that the label of vertex V was set. */
+    default void vertexLabelChanged(int v) {
+    }
+
+    /** Report that the label of the edge (U, V), with id E, was set. */
+    default void edgeLabelChanged(int u, int v, int e) {
+    }
+
+    /** Report that the weight of the edge (U, V), with id E, was set. */
+    default void edgeWeightChanged(int u, int v, int e) {
+    }
+
+    /** Report that the entire contents of the graph were replaced, as by
+     *  GraphBuilder, without reports of the individual vertices and
+     *  edges. */
+    default void reloaded() {
+    }
+
+    /** An empty array of listeners. */
+    GraphListener[] NONE = new GraphListener[0];
+
+    /** Returns LISTENERS without the first occurrence of LISTENER, or
+     *  LISTENERS itself if LISTENER does not occur. */
+    static GraphListener[] without(GraphListener[] listeners,
+                                   GraphListener listener) {
+        for (int i = 0; i < listeners.length; i += 1) {
+            if (listeners[i] == listener) {
+                GraphListener[] result =
+                    new GraphListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, result, 0, i);
+                System.arraycopy(listeners, i + 1, result, i,
+                                 result.length - i);
+                return result;
+            }
+        }
+        return listeners;
+    }
+
+}
@@ -1,58 +1,46 @@
 package graph;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 /* See restrictions in Graph.java. */
 
 /** A partial implementation of Graph containing elements common to
  *  directed and undirected graphs.
  *
- *  @author Tina Nguyen + cantor function
- *  for edgeID from Wikipedia + suggestions
+ *  @author Tina Nguyen + suggestions
  *  for code implementation from Piazza posts
  */
 abstract class GraphObj extends Graph {
 
-    /** A new, empty Graph. */
+    /** A new, empty Graph that keeps a hash index of its edges. */
     GraphObj() {
-        _edges = new ArrayList<>();
-        _vertices = new ArrayList<>();
-        _removeVert = new ArrayList<>();
-        _neighborEdges = new ArrayList<ArrayList<Integer>>();
-        _maxVert = 0;
-        _numEdges = 0;
+        this(true);
+    }
+
+    /** A new, empty Graph that keeps a hash index of its edges iff
+     *  INDEXEDGES.  Without it, edge lookups scan adjacency lists. */
+    GraphObj(boolean indexEdges) {
+        _index = indexEdges ? new EdgeIndex() : null;
+        _vertices = new VertexSet();
+        _neighbors = new Adjacency();
+        _predecessors = new Adjacency();
+        _edgeIds = new IdAllocator();
     }
 
     @Override
     public int vertexSize() {
-        int size = 0;
-        for (int i = 0; i < _vertices.size(); i++) {
-            if (_vertices.get(i) != null) {
-                size++;
-            }
-        }
-        return size;
+        return _vertices.size();
     }
 
     @Override
     public int maxVertex() {
-        if (_vertices == null || _vertices.size() < 1) {
-            return 0;
-        }
-        int currmax = 1;
-        for (int i = 0; i < _vertices.size(); i++) {
-            if (_vertices.get(i) != null && _vertices.get(i) > currmax) {
-                currmax = _vertices.get(i);
-            }
-        }
-        _maxVert = currmax;
-        return _maxVert;
+        return _vertices.max();
     }
 
     @Override
     public int edgeSize() {
-        return _numEdges;
+        return _edgeIds.size();
     }
 
     @Override
@@ -60,10 +48,7 @@ abstract class GraphObj extends Graph {
 
     @Override
     public int outDegree(int v) {
-        if (_neighborEdges.get(v - 1) == null) {
-            return 0;
-        }
-        return _neighborEdges.get(v - 1).size();
+        return _neighbors.size(v);
     }
 
     @Override
@@ -76,168 +61,261 @@ abstract class GraphObj extends Graph {
 
     @Override
     public boolean contains(int u, int v) {
-        if (contains(u) && contains(v)) {
-            for (int i : _neighborEdges.get(u - 1)) {
-                if (i == v) {
-                    return true;
-                }
-            }
-            if (!isDirected()) {
-                for (int i : _neighborEdges.get(v - 1)) {
-                    if (i == u) {
-                        return true;
-                    }
-                }
-            }
+        if (_index != null) {
+            return _index.get(edgeKey(u, v)) != 0;
         }
-        return false;
+        if (!contains(u) || !contains(v)) {
+            return false;
+        }
+        Adjacency into = isDirected() ? _predecessors : _neighbors;
+        if (into.size(v) < _neighbors.size(u)) {
+            return into.indexOf(v, u) >= 0;
+        }
+        return _neighbors.indexOf(u, v) >= 0;
     }
 
     @Override
     public int add() {
-        int node = 0;
-        if (_removeVert.isEmpty()) {
-            _neighborEdges.add(new ArrayList<>());
-            _vertices.add(_neighborEdges.size());
-            return _neighborEdges.size();
-        } else {
-            node = Collections.min(_removeVert);
-            _vertices.add(node + 1);
-            _neighborEdges.set(node, new ArrayList<>());
-            _removeVert.remove((Object) node);
+        _version += 1;
+        int v = _vertices.add();
+        for (GraphListener listener : _listeners) {
+            listener.vertexAdded(v);
         }
-        return node + 1;
+        return v;
     }
 
     @Override
     public int add(int u, int v) {
-        int[] add = new int[2];
-        add[0] = u;
-        add[1] = v;
-        if (_vertices.contains(u) && _vertices.contains(v)) {
-            if (!isDirected()) {
-                if (u == v) {
-                    _neighborEdges.get(u - 1).add(v);
-                    _edges.add(add);
-                    _numEdges += 1;
-                } else {
-                    _neighborEdges.get(u - 1).add(v);
-                    _neighborEdges.get(v - 1).add(u);
-                    _edges.add(add);
-                    _numEdges += 1;
-                }
-            } else {
-                _neighborEdges.get(u - 1).add(v);
-                _edges.add(add);
-                _numEdges += 1;
+        if (contains(u) && contains(v) && !contains(u, v)) {
+            int e = _edgeIds.allocate();
+            _neighbors.add(u, v, e);
+            if (isDirected()) {
+                _predecessors.add(v, u, e);
+            } else if (u != v) {
+                _neighbors.add(v, u, e);
+            }
+            if (_index != null) {
+                _index.put(edgeKey(u, v), e);
+            }
+            _version += 1;
+            for (GraphListener listener : _listeners) {
+                listener.edgeAdded(u, v, e);
             }
+            return e;
         }
         return edgeId(u, v);
     }
 
     @Override
     public void remove(int v) {
-        _removeVert.add(v - 1);
-        if (_vertices.contains(v)) {
-            _vertices.set(v - 1, null);
-            if (isDirected()) {
-                for (ArrayList<Integer> i : _neighborEdges) {
-                    if (i != null && i.contains(v)) {
-                        i.remove((Object) v);
-                    }
-                }
-                for (int i = 0; i < _edges.size(); i++) {
-                    int edge1 = _edges.get(i)[0];
-                    int edge2 = _edges.get(i)[1];
-                    if (edge1 == v || edge2 == v) {
-                        _numEdges -= 1;
-                        _edges.remove(i);
-                        i -= 1;
-                    }
-                }
-            } else {
-                for (int i = 0; i < _edges.size(); i++) {
-                    int edge1 = _edges.get(i)[0];
-                    int edge2 = _edges.get(i)[1];
-                    if (edge1 == v || edge2 == v) {
-                        _numEdges -= 1;
-                        _edges.remove(i);
-                        i -= 1;
+        if (contains(v)) {
+            _version += 1;
+            _vertices.remove(v);
+            for (int k = _neighbors.size(v) - 1; k >= 0; k -= 1) {
+                int w = _neighbors.get(v, k);
+                if (w != v) {
+                    if (isDirected()) {
+                        _predecessors.remove(w, v);
+                    } else {
+                        _neighbors.remove(w, v);
                     }
                 }
-                for (ArrayList<Integer> i : _neighborEdges) {
-                    if (i != null && i.contains(v)) {
-                        i.remove((Object) v);
+                forgetEdge(v, w, _neighbors.id(v, k));
+            }
+            if (isDirected()) {
+                for (int k = _predecessors.size(v) - 1; k >= 0; k -= 1) {
+                    int u = _predecessors.get(v, k);
+                    if (u != v) {
+                        _neighbors.remove(u, v);
+                        forgetEdge(u, v, _predecessors.id(v, k));
                     }
                 }
+                _predecessors.clear(v);
+            }
+            _neighbors.clear(v);
+            for (GraphListener listener : _listeners) {
+                listener.vertexRemoved(v);
             }
         }
-        _neighborEdges.set(v - 1, null);
     }
 
     @Override
     public void remove(int u, int v) {
-        int[] add = new int[2];
-        add[0] = u;
-        add[1] = v;
         if (contains(u, v)) {
+            _version += 1;
+            int e = _neighbors.remove(u, v);
             if (isDirected()) {
-                _neighborEdges.get(u - 1).remove((Object) v);
-                _numEdges -= 1;
-                for (int[] i : _edges) {
-                    if (i[0] == add[0] && i[1] == add[1]) {
-                        _edges.set(_edges.indexOf(i), null);
-                    }
-                }
-            } else {
-                _neighborEdges.get(u - 1).remove((Integer) v);
-                _neighborEdges.get(v - 1).remove((Integer) u);
-                _numEdges -= 1;
-                int[] edge = {Math.min(u, v), Math.max(u, v)};
-                for (int[] i : _edges) {
-                    if (i == edge) {
-                        _edges.set(_edges.indexOf(i), null);
-                    }
-                }
+                _predecessors.remove(v, u);
+            } else if (u != v) {
+                _neighbors.remove(v, u);
             }
+            forgetEdge(u, v, e);
+        }
+    }
+
+    /** Release the id E of the edge (U, V), which has been removed from
+     *  the adjacency tables, drop it from the edge index, and report its
+     *  removal. */
+    private void forgetEdge(int u, int v, int e) {
+        if (_index != null) {
+            _index.remove(edgeKey(u, v));
+        }
+        _edgeIds.free(e);
+        for (GraphListener listener : _listeners) {
+            listener.edgeRemoved(u, v, e);
         }
     }
 
     @Override
     public Iteration<Integer> vertices() {
-        ArrayList<Integer> nodes = new ArrayList<>();
-        for (int i = 0; i < _vertices.size(); i++) {
-            if (_vertices.get(i) != null) {
-                nodes.add(_vertices.get(i));
-            }
+        int[] nodes = new int[_vertices.size()];
+        for (int i = 0, v = _vertices.next(1); v != 0;
+             i += 1, v = _vertices.next(v + 1)) {
+            nodes[i] = v;
         }
         return Iteration.iteration(nodes);
     }
 
     @Override
     public Iteration<Integer> successors(int v) {
-        if (!contains(v)) {
-            return Iteration.iteration(new ArrayList<Integer>());
-        }
-        ArrayList<Integer> succ = new ArrayList<>();
-        for (int i : _neighborEdges.get(v - 1)) {
-            succ.add(i);
-        }
-        return Iteration.iteration(succ.iterator());
+        return Iteration.iteration(_neighbors.toArray(v));
     }
 
     @Override
     public abstract Iteration<Integer> predecessors(int v);
 
+    @Override
+    IntIteration successorIteration(int v) {
+        return _neighbors.iteration(v);
+    }
+
+    @Override
+    IntIteration reverseSuccessorIteration(int v) {
+        return _neighbors.reverseIteration(v);
+    }
+
+    @Override
+    IntIteration predecessorIteration(int v) {
+        return isDirected() ? _predecessors.iteration(v)
+            : _neighbors.iteration(v);
+    }
+
+    @Override
+    IntIteration vertexIteration() {
+        return _vertices.iteration();
+    }
+
+    @Override
+    Adjacency successorTable() {
+        return _neighbors;
+    }
+
+    @Override
+    Adjacency predecessorTable() {
+        return isDirected() ? _predecessors : _neighbors;
+    }
+
+    /** Returns an iteration over all edges in me, as for Graph.edges.
+     *  The iteration reads my adjacency lists in place rather than a
+     *  copy, so I must not be modified while it is in use.  It allocates
+     *  nothing per edge. */
     @Override
     public Iteration<int[]> edges() {
-        ArrayList<int[]> edges = new ArrayList<>();
-        for (int[] edge : _edges) {
-            if (edge != null) {
-                edges.add(edge);
+        return new EdgeIteration();
+    }
+
+    /** An iteration over my edges that returns each of them in the same
+     *  array.  An undirected edge is delivered once, from its smaller
+     *  end. */
+    private class EdgeIteration extends Iteration<int[]> {
+        /** An iteration starting with the first edge. */
+        EdgeIteration() {
+            _u = _vertices.next(1);
+            _k = -1;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _u != 0;
+        }
+
+        @Override
+        public int[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _edge[0] = _u;
+            _edge[1] = _neighbors.get(_u, _k);
+            advance();
+            return _edge;
+        }
+
+        /** Move _u and _k to the next edge to be delivered, setting _u to
+         *  0 if there is none. */
+        private void advance() {
+            _k += 1;
+            while (_u != 0) {
+                for (int n = _neighbors.size(_u); _k < n; _k += 1) {
+                    if (isDirected() || _u <= _neighbors.get(_u, _k)) {
+                        return;
+                    }
+                }
+                _u = _vertices.next(_u + 1);
+                _k = 0;
             }
         }
-        return Iteration.iteration(edges);
+
+        /** Source of the next edge, or 0 if there is none. */
+        private int _u;
+        /** Index of the next edge in the successors of _u. */
+        private int _k;
+        /** The array used to return edges. */
+        private final int[] _edge = new int[2];
+    }
+
+    /** Replace my contents, which must be empty, with vertices 1 .. N
+     *  and M edges with ids 1 .. M.  The successors and predecessors of
+     *  each vertex are in SUCCESSORS and PREDECESSORS (the latter null
+     *  if I am undirected), and INDEX maps the edges to their ids as for
+     *  my edge index, if I have one.  Used by GraphBuilder. */
+    void load(int n, int m, Adjacency successors, Adjacency predecessors,
+              EdgeIndex index) {
+        _version += 1;
+        _vertices = new VertexSet(n);
+        _edgeIds = new IdAllocator(m);
+        _neighbors = successors;
+        if (predecessors != null) {
+            _predecessors = predecessors;
+        }
+        if (_index != null) {
+            _index.take(index);
+        }
+        for (GraphListener listener : _listeners) {
+            listener.reloaded();
+        }
+    }
+
+    @Override
+    long version() {
+        return _version;
+    }
+
+    @Override
+    void addListener(GraphListener listener) {
+        _listeners = Arrays.copyOf(_listeners, _listeners.length + 1);
+        _listeners[_listeners.length - 1] = listener;
+    }
+
+    @Override
+    void removeListener(GraphListener listener) {
+        _listeners = GraphListener.without(_listeners, listener);
+    }
+
+    /** Returns the table of predecessors of each vertex.  It is maintained
+     *  only when I am directed; otherwise, it is empty. */
+    Adjacency incoming() {
+        return _predecessors;
     }
 
     @Override
@@ -249,30 +327,48 @@ abstract class GraphObj extends Graph {
 
     @Override
     protected int edgeId(int u, int v) {
-        if (!isDirected()) {
-            int max = Math.max(u, v);
-            int min = Math.min(u, v);
-            return (max + min) * (max + min + 1) / 2 + min;
-        } else {
-            u -= 1;
-            v -= 1;
-            return (u + v) * (u + v + 1) / 2 + v;
+        if (_index != null) {
+            return _index.get(edgeKey(u, v));
+        }
+        if (!contains(u) || !contains(v)) {
+            return 0;
+        }
+        int k = _neighbors.indexOf(u, v);
+        return k >= 0 ? _neighbors.id(u, k) : 0;
+    }
+
+    /** Returns the key of edge (U, V) in _index.  The endpoints of an
+     *  undirected edge are put in canonical order. */
+    private long edgeKey(int u, int v) {
+        if (!isDirected() && u > v) {
+            return EdgeIndex.key(v, u);
         }
+        return EdgeIndex.key(u, v);
     }
 
 
-    /** Store edges. */
-    private ArrayList<int[]> _edges;
-    /** Edge counter. */
-    private int _numEdges;
-    /** Store vertices. */
-    private ArrayList<Integer> _vertices;
-    /** Removed vertices. */
-    private ArrayList<Integer> _removeVert;
-    /** The max vertex node. */
-    private int _maxVert;
-    /** Graph representation. */
-    private ArrayList<ArrayList<Integer>> _neighborEdges;
+    /** Maps each of my edges to its edge id, or null if edges are not
+     *  indexed. */
+    private final EdgeIndex _index;
+    /** Allocates edge ids.  Ids are recycled when edges are removed, so
+     *  they stay below the largest number of edges I have had. */
+    private IdAllocator _edgeIds;
+    /** My vertices. */
+    private VertexSet _vertices;
+    /** The successors of each vertex, indexed by vertex number.  In an
+     *  undirected graph, an edge (U, V) appears in the lists of both U
+     *  and V (once, if U == V). */
+    private Adjacency _neighbors;
+    /** The predecessors of each vertex in a directed graph, indexed by
+     *  vertex number. */
+    private Adjacency _predecessors;
+    /** Number of modifications made to me. */
+    private long _version;
+    /** The listeners to which my modifications are reported.  Replaced,
+     *  rather than modified, when listeners are added or removed, so
+     *  that a listener may remove itself during a report.  With none,
+     *  reporting costs only a test of its length. */
+    private GraphListener[] _listeners = GraphListener.NONE;
 
 
 }
@@ -1,6 +1,9 @@
 package graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -262,4 +265,433 @@ public class GraphTest {
         assertTrue(pred.contains(3));
     }
 
+    @Test
+    public void testAdjacencyOrder() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 10; i += 1) {
+            g.add();
+        }
+        for (int v = 10; v >= 2; v -= 1) {
+            g.add(1, v);
+        }
+        g.add(1, 5);
+        assertEquals(9, g.outDegree(1));
+        assertEquals(9, g.edgeSize());
+
+        g.remove(1, 7);
+        g.remove(4);
+        ArrayList<Integer> succ = new ArrayList<>();
+        for (int v : g.successors(1)) {
+            succ.add(v);
+        }
+        assertEquals(Arrays.asList(10, 9, 8, 6, 5, 3, 2), succ);
+        assertEquals(7, g.edgeSize());
+        assertEquals(0, g.outDegree(4));
+        assertEquals(0, g.outDegree(42));
+    }
+
+    @Test
+    public void testPredecessorsAfterRemoval() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            g.add();
+        }
+        g.add(1, 3);
+        g.add(2, 3);
+        g.add(3, 3);
+        g.add(3, 4);
+        g.add(5, 3);
+        assertEquals(4, g.inDegree(3));
+
+        g.remove(2, 3);
+        assertEquals(3, g.inDegree(3));
+        g.remove(3);
+        assertEquals(0, g.inDegree(3));
+        assertEquals(0, g.inDegree(4));
+        assertEquals(0, g.outDegree(1));
+        assertEquals(0, g.outDegree(5));
+        assertEquals(0, g.edgeSize());
+        assertFalse(g.predecessors(4).hasNext());
+
+        g.add();
+        g.add(4, 3);
+        assertEquals(1, g.inDegree(3));
+        assertEquals(4, (int) g.predecessors(3).next());
+    }
+
+    @Test
+    public void testEdgeIndexChurn() {
+        Random rand = new Random(61);
+        for (boolean directed : new boolean[] { true, false }) {
+            Graph indexed =
+                directed ? new DirectedGraph() : new UndirectedGraph();
+            Graph scanned =
+                directed ? new DirectedGraph(false)
+                : new UndirectedGraph(false);
+            for (int i = 0; i < 30; i += 1) {
+                indexed.add();
+                scanned.add();
+            }
+            for (int i = 0; i < 3000; i += 1) {
+                int u = 1 + rand.nextInt(30), v = 1 + rand.nextInt(30);
+                if (rand.nextInt(3) == 0) {
+                    indexed.remove(u, v);
+                    scanned.remove(u, v);
+                } else {
+                    indexed.add(u, v);
+                    scanned.add(u, v);
+                }
+                assertEquals(scanned.contains(u, v), indexed.contains(u, v));
+                assertEquals(scanned.contains(v, u), indexed.contains(v, u));
+            }
+            assertEquals(scanned.edgeSize(), indexed.edgeSize());
+            indexed.remove(7);
+            scanned.remove(7);
+            for (int u = 1; u <= 30; u += 1) {
+                for (int v = 1; v <= 30; v += 1) {
+                    assertEquals(scanned.contains(u, v),
+                                 indexed.contains(u, v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDenseEdgeIds() {
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 0; i < 100000; i += 1) {
+            g.add("V" + i);
+        }
+        int e1 = g.add(1, 100000, "a");
+        int e2 = g.add(100000, 99999, "b");
+        int e3 = g.add(5, 5, "c");
+        assertEquals(1, e1);
+        assertEquals(2, e2);
+        assertEquals(3, e3);
+        assertEquals(e2, g.add(100000, 99999));
+        assertEquals(0, g.edgeId(2, 3));
+
+        g.remove(100000);
+        assertEquals(1, g.edgeSize());
+        assertEquals(e1, g.add(2, 3));
+        assertNull(g.getLabel(2, 3));
+        assertEquals(e2, g.add(3, 2, "d"));
+        assertEquals("d", g.getLabel(3, 2));
+        assertEquals("c", g.getLabel(5, 5));
+    }
+
+    @Test
+    public void testVertexChurn() {
+        Random rand = new Random(1961);
+        UndirectedGraph g = new UndirectedGraph();
+        TreeSet<Integer> model = new TreeSet<>();
+        for (int i = 0; i < 5000; i += 1) {
+            if (model.isEmpty() || rand.nextInt(5) < 3) {
+                int expected = 1;
+                while (model.contains(expected)) {
+                    expected += 1;
+                }
+                assertEquals(expected, g.add());
+                model.add(expected);
+            } else {
+                int v = 1 + rand.nextInt(model.last() + 1);
+                g.remove(v);
+                model.remove(v);
+            }
+            assertEquals(model.size(), g.vertexSize());
+            assertEquals(model.isEmpty() ? 0 : (int) model.last(),
+                         g.maxVertex());
+        }
+        ArrayList<Integer> vertices = new ArrayList<>();
+        for (int v : g.vertices()) {
+            assertTrue(g.contains(v));
+            vertices.add(v);
+        }
+        assertEquals(new ArrayList<>(model), vertices);
+        assertFalse(g.contains(0));
+        assertFalse(g.contains(-3));
+        assertFalse(g.contains(g.maxVertex() + 1));
+    }
+
+    @Test
+    public void testCSRSnapshot() {
+        for (Graph g : new Graph[] { new DirectedGraph(),
+                                     new UndirectedGraph() }) {
+            for (int i = 0; i < 8; i += 1) {
+                g.add();
+            }
+            g.add(1, 2);
+            g.add(1, 5);
+            g.add(5, 5);
+            g.add(5, 1);
+            g.add(3, 8);
+            g.add(8, 2);
+            g.remove(4);
+            CSRGraph csr = new CSRGraph(g, true);
+            assertEquals(g.vertexSize(), csr.vertexSize());
+            assertEquals(g.maxVertex(), csr.maxVertex());
+            assertEquals(g.edgeSize(), csr.edgeSize());
+            assertFalse(csr.contains(4));
+            assertEquals(unboxed(g.vertices()), unboxed(csr.vertices()));
+            int edges = 0;
+            for (int[] e : csr.edges()) {
+                assertTrue(g.contains(e[0], e[1]));
+                assertTrue(csr.edgeId(e[0], e[1]) > 0);
+                edges += 1;
+            }
+            assertEquals(g.edgeSize(), edges);
+            for (int u = 0; u <= 9; u += 1) {
+                assertEquals(unboxed(g.successors(u)),
+                             unboxed(csr.successors(u)));
+                assertEquals(new TreeSet<>(unboxed(g.predecessors(u))),
+                             new TreeSet<>(unboxed(csr.predecessors(u))));
+                assertEquals(g.inDegree(u), csr.inDegree(u));
+                for (int v = 0; v <= 9; v += 1) {
+                    assertEquals(g.contains(u, v), csr.contains(u, v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitiveIterations() {
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 6; i += 1) {
+            d.add();
+        }
+        d.add(2, 6);
+        d.add(2, 1);
+        d.add(4, 2);
+        d.add(2, 2);
+        d.remove(3);
+        LabeledGraph<String, String> g = new LabeledGraph<>(d);
+        for (Graph h : new Graph[] { d, g, new CSRGraph(d) }) {
+            for (int v = 0; v <= 7; v += 1) {
+                assertEquals(unboxed(h.successors(v)),
+                             unboxed(h.successorIteration(v)));
+                assertEquals(unboxed(h.predecessors(v)),
+                             unboxed(h.predecessorIteration(v)));
+            }
+            assertEquals(Arrays.asList(1, 2, 4, 5, 6),
+                         unboxed(h.vertexIteration()));
+        }
+    }
+
+    @Test
+    public void testFilteredIterations() {
+        DirectedGraph d = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            d.add();
+        }
+        d.add(1, 2);
+        d.add(2, 3);
+        d.add(1, 3);
+        d.add(4, 1);
+        Graph g = new Without(d, 1);
+        for (int v = 1; v <= 4; v += 1) {
+            assertEquals(unboxed(g.successors(v)),
+                         unboxed(g.successorIteration(v)));
+            assertEquals(unboxed(g.predecessors(v)),
+                         unboxed(g.predecessorIteration(v)));
+            assertEquals(unboxed(g.successors(v)).size(),
+                         unboxed(g.reverseSuccessorIteration(v)).size());
+        }
+        assertEquals(Arrays.asList(1, 2, 3, 4), unboxed(g.vertexIteration()));
+        BreadthFirstTraversal bft = new BreadthFirstTraversal(g);
+        bft.traverse(1);
+        assertTrue(bft.marked(1));
+        assertFalse(bft.marked(2));
+        assertFalse(bft.marked(3));
+        DepthFirstTraversal dft = new DepthFirstTraversal(g);
+        dft.traverse(4);
+        assertTrue(dft.marked(1));
+        assertFalse(dft.marked(2));
+        SimpleShortestPaths paths = new SimpleShortestPaths(g, 1, 3) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 1;
+            }
+        };
+        paths.setPaths();
+        assertEquals(Double.POSITIVE_INFINITY, paths.getWeight(3), 0);
+        paths.setBidirectional(true);
+        paths.setPaths();
+        assertEquals(Double.POSITIVE_INFINITY, paths.getWeight(3), 0);
+        assertEquals(0, new CSRGraph(g).outDegree(1));
+    }
+
+    @Test
+    public void testStreamingEdges() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            g.add();
+        }
+        g.add(3, 1);
+        g.add(2, 2);
+        g.add(5, 4);
+        g.add(1, 5);
+        g.remove(2);
+        Iteration<int[]> edges = g.edges();
+        int[] first = edges.next();
+        assertArrayEquals(new int[] { 1, 3 }, first);
+        assertSame(first, edges.next());
+        assertArrayEquals(new int[] { 1, 5 }, first);
+        assertArrayEquals(new int[] { 4, 5 }, edges.next());
+        assertFalse(edges.hasNext());
+        assertFalse(new DirectedGraph().edges().hasNext());
+    }
+
+    @Test
+    public void testBulkBuild() {
+        Random rand = new Random(2023);
+        int n = 300;
+        GraphBuilder builder = new GraphBuilder(n);
+        DirectedGraph directed = new DirectedGraph();
+        UndirectedGraph undirected = new UndirectedGraph();
+        for (int v = 1; v <= n; v += 1) {
+            directed.add();
+            undirected.add();
+        }
+        int[] sources = new int[40000], targets = new int[40000];
+        for (int i = 0; i < sources.length; i += 1) {
+            sources[i] = 1 + rand.nextInt(n);
+            targets[i] = 1 + rand.nextInt(n);
+            directed.add(sources[i], targets[i]);
+            undirected.add(sources[i], targets[i]);
+        }
+        builder.add(sources, targets);
+        builder.add(n, n);
+        directed.add(n, n);
+        undirected.add(n, n);
+
+        DirectedGraph bulkDirected = builder.directed();
+        UndirectedGraph bulkUndirected = builder.undirected(false);
+        Graph snapshot = builder.snapshot(true);
+        assertEquals(directed.edgeSize(), bulkDirected.edgeSize());
+        assertEquals(undirected.edgeSize(), bulkUndirected.edgeSize());
+        assertEquals(directed.edgeSize(), snapshot.edgeSize());
+        for (int v = 1; v <= n; v += 1) {
+            assertEquals(unboxed(directed.successors(v)),
+                         unboxed(bulkDirected.successors(v)));
+            assertEquals(unboxed(directed.predecessors(v)),
+                         unboxed(bulkDirected.predecessors(v)));
+            assertEquals(unboxed(undirected.successors(v)),
+                         unboxed(bulkUndirected.successors(v)));
+            assertEquals(unboxed(directed.successors(v)),
+                         unboxed(snapshot.successors(v)));
+            for (int w : directed.successors(v)) {
+                assertEquals(directed.edgeId(v, w),
+                             bulkDirected.edgeId(v, w));
+            }
+            for (int w : undirected.successors(v)) {
+                assertEquals(undirected.edgeId(v, w),
+                             bulkUndirected.edgeId(v, w));
+            }
+        }
+        assertEquals(n + 1, bulkDirected.add());
+        bulkDirected.remove(3);
+        assertEquals(3, bulkDirected.add());
+    }
+
+    @Test
+    public void testListeners() {
+        DirectedGraph d = new DirectedGraph();
+        LabeledGraph<String, String> g = new LabeledGraph<>(d);
+        ChangeLog log = new ChangeLog();
+        g.addListener(log);
+        long version = g.version();
+        int a = g.add("a"), b = g.add();
+        int ab = g.add(a, b, "x"), ba = g.add(b, a);
+        g.add(a, b);
+        g.remove(a);
+        assertTrue(g.version() > version);
+        assertEquals(Arrays.asList("VERTEX_ADDED 1 0 0",
+                                   "VERTEX_LABEL_CHANGED 1 0 0",
+                                   "VERTEX_ADDED 2 0 0",
+                                   "EDGE_ADDED 1 2 " + ab,
+                                   "EDGE_LABEL_CHANGED 1 2 " + ab,
+                                   "EDGE_ADDED 2 1 " + ba,
+                                   "EDGE_REMOVED 1 2 " + ab,
+                                   "EDGE_REMOVED 2 1 " + ba,
+                                   "VERTEX_REMOVED 1 0 0"),
+                     changes(log));
+
+        ChangeLog copy = new ChangeLog();
+        log.replay(copy);
+        assertEquals(changes(log), changes(copy));
+        log.clear();
+        assertTrue(log.isEmpty());
+
+        d.addListener(copy);
+        g.removeListener(log);
+        d.add();
+        g.setLabel(b, "b");
+        assertTrue(log.isEmpty());
+        assertEquals(10, copy.size());
+        assertEquals(ChangeLog.Kind.VERTEX_ADDED, copy.kind(9));
+
+        GraphBuilder builder = new GraphBuilder(3);
+        builder.add(1, 2);
+        builder.snapshot(true).addListener(log);
+        DirectedGraph built = builder.directed();
+        built.addListener(log);
+        built.remove(1, 2);
+        assertEquals(Arrays.asList("EDGE_REMOVED 1 2 1"), changes(log));
+    }
+
+    /** A view of a graph without the edges that leave one of its
+     *  vertices, made through the public accessors only. */
+    private static class Without extends GraphFilter {
+        /** G without the edges that leave HIDDEN. */
+        Without(Graph G, int hidden) {
+            super(G);
+            _hidden = hidden;
+        }
+
+        @Override
+        public int outDegree(int v) {
+            return v == _hidden ? 0 : super.outDegree(v);
+        }
+
+        @Override
+        public Iteration<Integer> successors(int v) {
+            ArrayList<Integer> succ = unboxed(super.successors(v));
+            if (v == _hidden) {
+                succ.clear();
+            }
+            return Iteration.iteration(succ);
+        }
+
+        @Override
+        public Iteration<Integer> predecessors(int v) {
+            ArrayList<Integer> pred = unboxed(super.predecessors(v));
+            pred.remove((Integer) _hidden);
+            return Iteration.iteration(pred);
+        }
+
+        /** The vertex whose outgoing edges are hidden. */
+        private final int _hidden;
+    }
+
+    /** Returns descriptions of the changes in LOG, in order. */
+    private static ArrayList<String> changes(ChangeLog log) {
+        ArrayList<String> result = new ArrayList<>();
+        for (int i = 0; i < log.size(); i += 1) {
+            result.add(log.kind(i) + " " + log.u(i) + " " + log.v(i) + " "
+                       + log.edge(i));
+        }
+        return result;
+    }
+
+    /** Returns the values delivered by IT, in the order delivered. */
+    private static ArrayList<Integer> unboxed(Iteration<Integer> it) {
+        ArrayList<Integer> result = new ArrayList<>();
+        IntIteration ints = IntIteration.of(it);
+        while (ints.hasNext()) {
+            result.add(ints.nextInt());
+        }
+        return result;
+    }
+
 }
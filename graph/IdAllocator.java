@@ -0,0 +1,97 @@
+package graph;
+
+import java.util.Arrays;
+
+/* See restrictions in Graph.java. */
+
+/** Hands out positive integer identifiers, always the smallest one not
+ *  currently in use.  Freed identifiers are kept in a binary min-heap,
+ *  so that allocation and release take O(log n) time, and identifiers
+ *  never exceed the largest number that were in use at one time.
+ *  @author Tina Nguyen
+ */
+class IdAllocator {
+
+    /** An allocator with no identifiers in use. */
+    IdAllocator() {
+        this(0);
+    }
+
+    /** An allocator with identifiers 1 .. N in use. */
+    IdAllocator(int n) {
+        _free = new int[INITIAL_CAPACITY];
+        _limit = n;
+    }
+
+    /** Returns the smallest identifier >= 1 not in use, and marks it as
+     *  being in use. */
+    int allocate() {
+        if (_numFree == 0) {
+            _limit += 1;
+            return _limit;
+        }
+        int id = _free[0];
+        _numFree -= 1;
+        siftDown(_free[_numFree]);
+        return id;
+    }
+
+    /** Return ID, which must be in use, to the pool of free
+     *  identifiers. */
+    void free(int id) {
+        if (id == _limit) {
+            _limit -= 1;
+            return;
+        }
+        if (_numFree == _free.length) {
+            _free = Arrays.copyOf(_free, 2 * _numFree);
+        }
+        int i = _numFree;
+        _numFree += 1;
+        while (i > 0 && _free[(i - 1) / 2] > id) {
+            _free[i] = _free[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        _free[i] = id;
+    }
+
+    /** Returns the number of identifiers in use. */
+    int size() {
+        return _limit - _numFree;
+    }
+
+    /** Returns an upper bound on the identifiers in use: the largest one
+     *  allocated and not since freed at the top of the range. */
+    int limit() {
+        return _limit;
+    }
+
+    /** Put ID in place of the root of the heap of free identifiers, and
+     *  restore the heap property. */
+    private void siftDown(int id) {
+        int i = 0;
+        while (2 * i + 1 < _numFree) {
+            int c = 2 * i + 1;
+            if (c + 1 < _numFree && _free[c + 1] < _free[c]) {
+                c += 1;
+            }
+            if (_free[c] >= id) {
+                break;
+            }
+            _free[i] = _free[c];
+            i = c;
+        }
+        _free[i] = id;
+    }
+
+    /** Initial capacity of _free. */
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Min-heap of the freed identifiers below _limit. */
+    private int[] _free;
+    /** Number of entries in _free. */
+    private int _numFree;
+    /** Largest identifier handed out that is not known to be free. */
+    private int _limit;
+
+}
@@ -0,0 +1,163 @@
+package graph;
+
+import java.util.Arrays;
+
+/* See restrictions in Graph.java. */
+
+/** A priority queue of vertices, each with a double priority, kept as a
+ *  4-ary heap.  The position of each vertex in the heap is recorded, so
+ *  that its priority may be changed in place in O(log n) time.  Vertices
+ *  with equal priorities come out in increasing order of vertex number.
+ *  No objects are allocated except when the arrays grow.
+ *  @author Tina Nguyen
+ */
+class IndexedHeap implements VertexQueue {
+
+    /** An empty heap. */
+    IndexedHeap() {
+        _vertices = new int[INITIAL_CAPACITY];
+        _priorities = new double[INITIAL_CAPACITY];
+        _positions = new int[INITIAL_CAPACITY];
+    }
+
+    /** Returns the number of vertices in me. */
+    int size() {
+        return _size;
+    }
+
+    /** Returns true iff I am empty. */
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /** Returns true iff V is in me. */
+    boolean contains(int v) {
+        return v < _positions.length && _positions[v] != 0;
+    }
+
+    /** Returns the priority of V, which must be in me. */
+    double priority(int v) {
+        return _priorities[_positions[v] - 1];
+    }
+
+    /** Set the priority of V to PRIORITY, adding V if it is not
+     *  present. */
+    @Override
+    public void update(int v, double priority) {
+        if (v >= _positions.length) {
+            _positions = Arrays.copyOf(_positions,
+                                       Math.max(v + 1, 2 * _positions.length));
+        }
+        int i = _positions[v] - 1;
+        if (i < 0) {
+            if (_size == _vertices.length) {
+                _vertices = Arrays.copyOf(_vertices, 2 * _size);
+                _priorities = Arrays.copyOf(_priorities, 2 * _size);
+            }
+            i = _size;
+            _size += 1;
+            siftUp(i, v, priority);
+        } else if (priority < _priorities[i]) {
+            siftUp(i, v, priority);
+        } else {
+            siftDown(i, v, priority);
+        }
+    }
+
+    /** Returns the vertex with the least priority (the least such
+     *  vertex, if there are several).  I must not be empty. */
+    int peek() {
+        return _vertices[0];
+    }
+
+    /** Remove and return the vertex with the least priority (the least
+     *  such vertex, if there are several).  I must not be empty. */
+    @Override
+    public int poll() {
+        int v = _vertices[0];
+        _positions[v] = 0;
+        _size -= 1;
+        if (_size > 0) {
+            siftDown(0, _vertices[_size], _priorities[_size]);
+        }
+        return v;
+    }
+
+    /** Remove all vertices.  Takes time proportional to my size. */
+    @Override
+    public void clear() {
+        for (int i = 0; i < _size; i += 1) {
+            _positions[_vertices[i]] = 0;
+        }
+        _size = 0;
+    }
+
+    /** Returns true iff vertex V with priority P comes before vertex W
+     *  with priority Q. */
+    private static boolean before(double p, int v, double q, int w) {
+        return p < q || (p == q && v < w);
+    }
+
+    /** Put vertex V with priority P at position I, and move it toward
+     *  the root as needed. */
+    private void siftUp(int i, int v, double p) {
+        while (i > 0) {
+            int parent = (i - 1) / ARITY;
+            if (!before(p, v, _priorities[parent], _vertices[parent])) {
+                break;
+            }
+            place(i, _vertices[parent], _priorities[parent]);
+            i = parent;
+        }
+        place(i, v, p);
+    }
+
+    /** Put vertex V with priority P at position I, and move it toward
+     *  the leaves as needed. */
+    private void siftDown(int i, int v, double p) {
+        while (true) {
+            int first = ARITY * i + 1;
+            if (first >= _size) {
+                break;
+            }
+            int least = first;
+            int last = Math.min(first + ARITY, _size);
+            for (int c = first + 1; c < last; c += 1) {
+                if (before(_priorities[c], _vertices[c],
+                           _priorities[least], _vertices[least])) {
+                    least = c;
+                }
+            }
+            if (!before(_priorities[least], _vertices[least], p, v)) {
+                break;
+            }
+            place(i, _vertices[least], _priorities[least]);
+            i = least;
+        }
+        place(i, v, p);
+    }
+
+    /** Store vertex V with priority P at position I. */
+    private void place(int i, int v, double p) {
+        _vertices[i] = v;
+        _priorities[i] = p;
+        _positions[v] = i + 1;
+    }
+
+    /** Number of children of each node. */
+    private static final int ARITY = 4;
+    /** Initial capacity. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The vertices, in heap order. */
+    private int[] _vertices;
+    /** _priorities[I] is the priority of _vertices[I]. */
+    private double[] _priorities;
+    /** _positions[V] is 1 + the position of V in _vertices, or 0 if V is
+     *  not present. */
+    private int[] _positions;
+    /** Number of vertices present. */
+    private int _size;
+
+}
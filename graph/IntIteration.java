@@ -0,0 +1,55 @@
+package graph;
+
+import java.util.PrimitiveIterator;
+
+/* See restrictions in Graph.java. */
+
+/** An Iteration over ints that can deliver them without boxing, through
+ *  nextInt().  The boxed next() is still available, so an IntIteration
+ *  can be returned wherever an Iteration<Integer> is expected.
+ *  @author Tina Nguyen
+ */
+abstract class IntIteration extends Iteration<Integer>
+    implements PrimitiveIterator.OfInt {
+
+    @Override
+    public abstract boolean hasNext();
+
+    @Override
+    public abstract int nextInt();
+
+    @Override
+    public Integer next() {
+        return nextInt();
+    }
+
+    /** An IntIteration that unboxes the values of an Iteration. */
+    private static class Unboxing extends IntIteration {
+        /** An iteration over the values of ITER. */
+        Unboxing(Iteration<Integer> iter) {
+            _iter = iter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _iter.hasNext();
+        }
+
+        @Override
+        public int nextInt() {
+            return _iter.next();
+        }
+
+        /** The iteration being unboxed. */
+        private final Iteration<Integer> _iter;
+    }
+
+    /** Returns ITER as an IntIteration. */
+    static IntIteration of(Iteration<Integer> iter) {
+        if (iter instanceof IntIteration) {
+            return (IntIteration) iter;
+        }
+        return new Unboxing(iter);
+    }
+
+}
@@ -3,6 +3,7 @@ package graph;
 /* See restrictions in Graph.java. */
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /** An Iteration<TYPE> is an Iterator<TYPE> that may also be used in a foreach
  *  loop.  That is, it implements the Iterable<TYPE> interface by simply
@@ -56,4 +57,85 @@ public abstract class Iteration<Type>
         return new SimpleIteration<>(iterable.iterator());
     }
 
+    /** An Iteration over a range of the elements of an int array. */
+    private static class ArrayIteration extends IntIteration {
+        /** An iteration over VALUES[FROM .. TO-1]. */
+        ArrayIteration(int[] values, int from, int to) {
+            _values = values;
+            _next = from;
+            _end = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next < _end;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _next += 1;
+            return _values[_next - 1];
+        }
+
+        /** The values delivered. */
+        private final int[] _values;
+        /** Index of the next value to deliver. */
+        private int _next;
+        /** Index just past the last value to deliver. */
+        private final int _end;
+    }
+
+    /** Returns an Iteration<Integer> over the elements of VALUES, which
+     *  must not change while the iteration is in use. */
+    static IntIteration iteration(int[] values) {
+        return new ArrayIteration(values, 0, values.length);
+    }
+
+    /** Returns an Iteration<Integer> over VALUES[FROM .. TO-1], which
+     *  must not change while the iteration is in use. */
+    static IntIteration iteration(int[] values, int from, int to) {
+        return new ArrayIteration(values, from, to);
+    }
+
+    /** An Iteration over a range of the elements of an int array, from
+     *  last to first. */
+    private static class ReverseArrayIteration extends IntIteration {
+        /** An iteration over VALUES[TO-1], ..., VALUES[FROM]. */
+        ReverseArrayIteration(int[] values, int from, int to) {
+            _values = values;
+            _next = to;
+            _start = from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next > _start;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            _next -= 1;
+            return _values[_next];
+        }
+
+        /** The values delivered. */
+        private final int[] _values;
+        /** Index just past the next value to deliver. */
+        private int _next;
+        /** Index of the last value to deliver. */
+        private final int _start;
+    }
+
+    /** Returns an Iteration<Integer> over VALUES[FROM .. TO-1] in reverse
+     *  order, which must not change while the iteration is in use. */
+    static IntIteration reverseIteration(int[] values, int from, int to) {
+        return new ReverseArrayIteration(values, from, to);
+    }
+
 }
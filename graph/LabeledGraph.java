@@ -3,9 +3,13 @@ package graph;
 /* See restrictions in Graph.java. */
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /** A Graph whose vertices are labeled with type VL and whose edges are
- *  labeled with type EL.
+ *  labeled with type EL.  Within this package, each edge also has a
+ *  numeric weight, 1 unless set otherwise, held in a column of doubles
+ *  indexed by edge id that ShortestPaths can read directly (see
+ *  ShortestPaths.setGraphWeights).
  *  @author P. N. Hilfinger
  */
 public class LabeledGraph<VL, EL> extends GraphFilter {
@@ -35,11 +39,40 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         return e < _elabel.size() ? _elabel.get(e) : null;
     }
 
+    /** Returns the weight of the edge (U, V), which must be one of my
+     *  edges. */
+    double getWeight(int u, int v) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        return weight(_weights, e);
+    }
+
+    /** Set getWeight(U, V) to W.  (U, V) must be one of my edges. */
+    void setWeight(int u, int v, double w) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        if (e >= _weights.length) {
+            int n = _weights.length;
+            _weights = Arrays.copyOf(_weights, Math.max(e + 1, 2 * n));
+            Arrays.fill(_weights, n, _weights.length, DEFAULT_WEIGHT);
+        }
+        _weights[e] = w;
+        _labelChanges += 1;
+        for (GraphListener listener : _listeners) {
+            listener.edgeWeightChanged(u, v, e);
+        }
+    }
+
     /** Return the successor of vertex U along the edge labeled LAB, if any,
      *  and otherwise 0. Assumes LAB is not null. If multiple edges have the
      *  label EL, returns an arbitrary one of them. */
     public int getSuccessor(int u, EL lab) {
-        for (int v : successors(u)) {
+        for (IntIteration succ = successorIteration(u); succ.hasNext();) {
+            int v = succ.nextInt();
             if (lab.equals(getLabel(u, v))) {
                 return v;
             }
@@ -53,6 +86,10 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (lab != null || v < _vlabel.size()) {
             expand(_vlabel, v + 1);
             _vlabel.set(v, lab);
+            _labelChanges += 1;
+            for (GraphListener listener : _listeners) {
+                listener.vertexLabelChanged(v);
+            }
         }
     }
 
@@ -62,10 +99,7 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
-        }
+        setLabel(u, v, e, lab);
     }
 
     /** Returns a new vertex labeled LAB, and adds it to me with no
@@ -82,15 +116,20 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  an edge (U, V), sets its label to EL. */
     public int add(int u, int v, EL lab) {
         int e = add(u, v);
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
-        }
+        setLabel(u, v, e, lab);
         return e;
     }
 
     @Override
     public void remove(int v) {
+        if (contains(v)) {
+            for (IntIteration it = successorIteration(v); it.hasNext();) {
+                clearLabel(edgeId(v, it.nextInt()));
+            }
+            for (IntIteration it = predecessorIteration(v); it.hasNext();) {
+                clearLabel(edgeId(it.nextInt(), v));
+            }
+        }
         super.remove(v);
         if (v < _vlabel.size()) {
             _vlabel.set(v, null);
@@ -102,12 +141,69 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         int e = edgeId(u, v);
         if (e != 0) {
             super.remove(u, v);
-            if (e < _elabel.size()) {
-                _elabel.set(e, null);
+            clearLabel(e);
+        }
+    }
+
+    /** Returns the version of my graph, advanced also by every change
+     *  of label or weight. */
+    @Override
+    long version() {
+        long version = super.version();
+        return version == UNVERSIONED ? UNVERSIONED : version + _labelChanges;
+    }
+
+    /** Reports modifications of my graph to LISTENER, as well as changes
+     *  to my labels and weights. */
+    @Override
+    void addListener(GraphListener listener) {
+        super.addListener(listener);
+        _listeners = Arrays.copyOf(_listeners, _listeners.length + 1);
+        _listeners[_listeners.length - 1] = listener;
+    }
+
+    @Override
+    void removeListener(GraphListener listener) {
+        super.removeListener(listener);
+        _listeners = GraphListener.without(_listeners, listener);
+    }
+
+    /** Set the label of the edge (U, V), whose id is E, to LAB. */
+    private void setLabel(int u, int v, int e, EL lab) {
+        if (lab != null || e < _elabel.size()) {
+            expand(_elabel, e + 1);
+            _elabel.set(e, lab);
+            _labelChanges += 1;
+            for (GraphListener listener : _listeners) {
+                listener.edgeLabelChanged(u, v, e);
             }
         }
     }
 
+    /** Returns the weights of my edges, indexed by edge id, as read by
+     *  weight(E).  The array is replaced, rather than modified, when it
+     *  grows. */
+    double[] weights() {
+        return _weights;
+    }
+
+    /** Returns the weight of the edge whose id is E, according to
+     *  WEIGHTS, as returned by weights(). */
+    static double weight(double[] weights, int e) {
+        return e < weights.length ? weights[e] : DEFAULT_WEIGHT;
+    }
+
+    /** Remove the label and weight of the edge whose id is E, so that
+     *  they do not attach to a later edge that is given the same id. */
+    private void clearLabel(int e) {
+        if (e < _elabel.size()) {
+            _elabel.set(e, null);
+        }
+        if (e < _weights.length) {
+            _weights[e] = DEFAULT_WEIGHT;
+        }
+    }
+
     /** If necessary, add nulls to L to make its length N.  Has no effect if
      *  L's length is already at least N. */
     static void expand(ArrayList<?> L, int n) {
@@ -116,8 +212,19 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         }
     }
 
+    /** Weight of an edge whose weight has not been set. */
+    static final double DEFAULT_WEIGHT = 1;
+
     /** Mapping of vertex numbers to vertex labels. */
     private final ArrayList<VL> _vlabel = new ArrayList<>();
-    /** Mapping of unique edge ids to edge labels. */
+    /** Mapping of unique edge ids to edge labels.  Edge ids are dense, so
+     *  this grows with the number of edges. */
     private final ArrayList<EL> _elabel = new ArrayList<>();
+    /** Mapping of edge ids to edge weights.  Ids past its end have the
+     *  default weight. */
+    private double[] _weights = {};
+    /** Number of labels and weights set, which advances my version. */
+    private long _labelChanges;
+    /** The listeners to which changes of label are reported. */
+    private GraphListener[] _listeners = GraphListener.NONE;
 }
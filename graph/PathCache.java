@@ -0,0 +1,314 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/* See restrictions in Graph.java. */
+
+/** A bounded cache of the shortest paths found by ShortestPaths searches
+ *  of one graph, keyed by source, destination, and the version of the
+ *  graph.  Any modification of the graph (including, for a LabeledGraph,
+ *  a change of label) changes its version, and the cache then discards
+ *  everything it holds, so that it never returns a path computed from
+ *  an earlier state of the graph.  Graphs that do not track their
+ *  versions are never cached.
+ *
+ *  The cache holds at most a given number of paths and a given estimated
+ *  number of bytes.  It admits and evicts paths by W-TinyLFU: a new path
+ *  enters a small window, kept in least-recently-used order, and a path
+ *  leaving the window enters the main cache only if its source and
+ *  destination have been looked up more often lately than those of the
+ *  path it would displace there, the least recently used one.  Lookup
+ *  counts are kept approximately in a count-min sketch of small
+ *  counters, which are all halved periodically so that old lookups
+ *  fade.  Thus paths wanted once, as in a scan of many pairs, pass
+ *  through the window without evicting the popular ones.  It counts
+ *  hits, misses, and evictions.  It is not safe for concurrent use.
+ *
+ *  The key ignores how a path was found.  Where there are several
+ *  shortest paths, searches with different estimatedDistance
+ *  heuristics may choose different ones, so a cached path may differ
+ *  from the one a fresh search would return, though it is just as
+ *  short.
+ *  @author Tina Nguyen
+ */
+class PathCache {
+
+    /** A cache for paths in G holding at most MAXENTRIES paths and about
+     *  MAXBYTES bytes of them. */
+    PathCache(Graph G, int maxEntries, long maxBytes) {
+        if (maxEntries < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("negative cache limit");
+        }
+        _G = G;
+        _maxEntries = maxEntries;
+        _maxBytes = maxBytes;
+        _windowEntries =
+            maxEntries == 0 ? 0 : Math.max(1, maxEntries / WINDOW_FRACTION);
+        _version = G.version();
+        int size = MIN_SKETCH;
+        while (size < MAX_SKETCH && size < SKETCH_FACTOR * maxEntries) {
+            size *= 2;
+        }
+        _counts = new byte[size];
+        _sampleSize = SAMPLE_FACTOR * size;
+    }
+
+    /** Returns the shortest path from the source of PATHS to its
+     *  destination, which must be set, as for PATHS.pathTo().  Runs
+     *  PATHS.setPaths() only if the path is not cached, and then caches
+     *  the result.  PATHS must search my graph, and the path must depend
+     *  only on its source, destination, and the state of my graph. */
+    List<Integer> pathTo(ShortestPaths paths) {
+        int source = paths.getSource(), dest = paths.getDest();
+        List<Integer> path = get(source, dest);
+        if (path == null) {
+            paths.setPaths();
+            path =
+                Collections.unmodifiableList(new ArrayList<>(paths.pathTo()));
+            put(source, dest, path);
+        }
+        return path;
+    }
+
+    /** Returns the cached path from SOURCE to DEST, or null if there is
+     *  none for the current version of my graph. */
+    List<Integer> get(int source, int dest) {
+        checkVersion();
+        long key = key(source, dest);
+        count(key);
+        List<Integer> path = _window.get(key);
+        if (path == null) {
+            path = _main.get(key);
+        }
+        if (path == null) {
+            _misses += 1;
+        } else {
+            _hits += 1;
+        }
+        return path;
+    }
+
+    /** Cache PATH as the shortest path from SOURCE to DEST in the current
+     *  version of my graph.  PATH must not be modified afterwards. */
+    void put(int source, int dest, List<Integer> path) {
+        checkVersion();
+        if (_version == Graph.UNVERSIONED) {
+            return;
+        }
+        long key = key(source, dest);
+        List<Integer> old = _main.remove(key);
+        if (old == null) {
+            old = _window.remove(key);
+        }
+        if (old != null) {
+            _bytes -= bytes(old);
+        }
+        _window.put(key, path);
+        _bytes += bytes(path);
+        if (_window.size() > _windowEntries) {
+            Iterator<Map.Entry<Long, List<Integer>>> eldest =
+                _window.entrySet().iterator();
+            Map.Entry<Long, List<Integer>> candidate = eldest.next();
+            eldest.remove();
+            admit(candidate.getKey(), candidate.getValue());
+        }
+        while (_bytes > _maxBytes) {
+            evict(_main.isEmpty() ? _window : _main);
+        }
+    }
+
+    /** Move PATH, keyed by KEY, from the window into the main cache if it
+     *  has room, or if KEY has been looked up more often than the key of
+     *  the path that would be evicted to make room.  Otherwise, drop
+     *  PATH. */
+    private void admit(long key, List<Integer> path) {
+        if (_main.size() < _maxEntries - _windowEntries) {
+            _main.put(key, path);
+            return;
+        }
+        if (!_main.isEmpty()
+            && frequency(key)
+               > frequency(_main.keySet().iterator().next())) {
+            evict(_main);
+            _main.put(key, path);
+            return;
+        }
+        _bytes -= bytes(path);
+        _evictions += 1;
+    }
+
+    /** Remove the least recently used path from PATHS, which must not be
+     *  empty. */
+    private void evict(LinkedHashMap<Long, List<Integer>> paths) {
+        Iterator<List<Integer>> eldest = paths.values().iterator();
+        _bytes -= bytes(eldest.next());
+        eldest.remove();
+        _evictions += 1;
+    }
+
+    /** Remove all paths.  The counts of lookups are kept, since the
+     *  pairs looked up often are likely to stay popular. */
+    void clear() {
+        _window.clear();
+        _main.clear();
+        _bytes = 0;
+    }
+
+    /** Returns the number of paths cached. */
+    int size() {
+        return _window.size() + _main.size();
+    }
+
+    /** Returns the estimated number of bytes taken by the cached
+     *  paths. */
+    long bytes() {
+        return _bytes;
+    }
+
+    /** Returns the number of lookups that found a path. */
+    long hits() {
+        return _hits;
+    }
+
+    /** Returns the number of lookups that found no path. */
+    long misses() {
+        return _misses;
+    }
+
+    /** Returns the number of paths evicted to stay within my limits (not
+     *  counting those discarded because the graph changed). */
+    long evictions() {
+        return _evictions;
+    }
+
+    /** Returns the fraction of lookups that found a path, or 0 if there
+     *  have been none. */
+    double hitRate() {
+        long lookups = _hits + _misses;
+        return lookups == 0 ? 0.0 : (double) _hits / lookups;
+    }
+
+    /** Discard all paths if my graph has changed since they were
+     *  cached. */
+    private void checkVersion() {
+        long version = _G.version();
+        if (version != _version || version == Graph.UNVERSIONED) {
+            clear();
+            _version = version;
+        }
+    }
+
+    /** Record a lookup of KEY in the sketch, halving all its counters
+     *  after every _sampleSize lookups. */
+    private void count(long key) {
+        for (int i = 0; i < SKETCH_HASHES; i += 1) {
+            int k = slot(key, i);
+            if (_counts[k] < MAX_COUNT) {
+                _counts[k] += 1;
+            }
+        }
+        _samples += 1;
+        if (_samples >= _sampleSize) {
+            for (int k = 0; k < _counts.length; k += 1) {
+                _counts[k] >>= 1;
+            }
+            _samples /= 2;
+        }
+    }
+
+    /** Returns the estimated number of recent lookups of KEY: the least
+     *  of its counters in the sketch. */
+    private int frequency(long key) {
+        int result = MAX_COUNT;
+        for (int i = 0; i < SKETCH_HASHES; i += 1) {
+            result = Math.min(result, _counts[slot(key, i)]);
+        }
+        return result;
+    }
+
+    /** Returns the position in _counts of counter #I of KEY. */
+    private int slot(long key, int i) {
+        long h = (key + i) * HASH_MULTIPLIERS[i];
+        return (int) (h >>> HASH_SHIFT) & (_counts.length - 1);
+    }
+
+    /** Returns the key for the path from SOURCE to DEST. */
+    private static long key(int source, int dest) {
+        return ((long) source << 32) | (dest & 0xffffffffL);
+    }
+
+    /** Returns the estimated number of bytes taken by caching PATH: its
+     *  boxed elements (small ones are shared), the list, and the map
+     *  entry. */
+    private static long bytes(List<Integer> path) {
+        return ENTRY_BYTES + (long) ELEMENT_BYTES * path.size();
+    }
+
+    /** Estimated bytes per cached path, apart from its elements. */
+    private static final int ENTRY_BYTES = 128;
+    /** Estimated bytes per element of a cached path. */
+    private static final int ELEMENT_BYTES = 24;
+    /** Initial capacity of _window and _main. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Load factor of _window and _main. */
+    private static final float LOAD_FACTOR = 0.75f;
+    /** The window holds this fraction (inverted) of the paths. */
+    private static final int WINDOW_FRACTION = 100;
+    /** Number of counters per key in the sketch. */
+    private static final int SKETCH_HASHES = 4;
+    /** Multipliers of the hash functions of the sketch (odd, so that
+     *  each permutes the keys). */
+    private static final long[] HASH_MULTIPLIERS = {
+        0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL,
+        0x165667b19e3779f9L, 0xd6e8feb86659fd93L
+    };
+    /** The top bits of a hash are used, starting at this bit. */
+    private static final int HASH_SHIFT = 32;
+    /** Greatest value of a counter. */
+    private static final int MAX_COUNT = 15;
+    /** Least and greatest number of counters in the sketch (powers of
+     *  2). */
+    private static final int MIN_SKETCH = 16, MAX_SKETCH = 1 << 22;
+    /** Counters in the sketch per path that the cache holds, at most. */
+    private static final int SKETCH_FACTOR = 4;
+    /** Lookups per counter between halvings of the counters. */
+    private static final int SAMPLE_FACTOR = 10;
+
+    /** The graph whose paths I cache. */
+    private final Graph _G;
+    /** Greatest number of paths held. */
+    private final int _maxEntries;
+    /** Greatest estimated number of bytes held. */
+    private final long _maxBytes;
+    /** Greatest number of paths held in _window. */
+    private final int _windowEntries;
+    /** The paths admitted most recently, keyed by source and destination,
+     *  from least to most recently used. */
+    private final LinkedHashMap<Long, List<Integer>> _window =
+        new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    /** The paths admitted from _window, keyed by source and destination,
+     *  from least to most recently used. */
+    private final LinkedHashMap<Long, List<Integer>> _main =
+        new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    /** Counters of the count-min sketch of lookups. */
+    private final byte[] _counts;
+    /** Number of lookups between halvings of _counts. */
+    private final int _sampleSize;
+    /** Number of lookups counted since the last halving, plus half the
+     *  number before it. */
+    private int _samples;
+    /** Version of _G when the paths were cached. */
+    private long _version;
+    /** Estimated bytes held. */
+    private long _bytes;
+    /** Lookup counts. */
+    private long _hits, _misses;
+    /** Number of paths evicted. */
+    private long _evictions;
+
+}
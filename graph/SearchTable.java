@@ -0,0 +1,88 @@
+package graph;
+
+import java.util.Arrays;
+
+/* See restrictions in Graph.java. */
+
+/** The tentative weights of vertices in a shortest-path search, each
+ *  with a link to a neighboring vertex on its best path.  Each entry is
+ *  stamped with the search that set it, and entries with older stamps
+ *  read as infinitely heavy with no link, so that starting a search
+ *  takes constant time (apart from growth) and a search touches only
+ *  the vertices it reaches.
+ *  @author Tina Nguyen
+ */
+class SearchTable {
+
+    /** An empty table. */
+    SearchTable() {
+        _weights = new double[0];
+        _links = new int[0];
+        _stamps = new int[0];
+    }
+
+    /** Discard the results of the previous search, and make room for
+     *  vertices up to MAXVERTEX. */
+    void begin(int maxVertex) {
+        if (maxVertex >= _stamps.length) {
+            int size = Math.max(maxVertex + 1, 2 * _stamps.length);
+            _weights = Arrays.copyOf(_weights, size);
+            _links = Arrays.copyOf(_links, size);
+            _stamps = Arrays.copyOf(_stamps, size);
+        }
+        _epoch += 1;
+        if (_epoch == 0) {
+            Arrays.fill(_stamps, 0);
+            _epoch = 1;
+        }
+    }
+
+    /** Returns true iff V has been set in the current search. */
+    boolean isSet(int v) {
+        return v >= 0 && v < _stamps.length && _stamps[v] == _epoch;
+    }
+
+    /** Returns the weight of V, or infinity if it has not been set. */
+    double weight(int v) {
+        return isSet(v) ? _weights[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /** Returns the link of V, or 0 if it has not been set. */
+    int link(int v) {
+        return isSet(v) ? _links[v] : 0;
+    }
+
+    /** Set the weight of V, which is at most the maximum vertex given to
+     *  begin, to W. */
+    void setWeight(int v, double w) {
+        touch(v);
+        _weights[v] = w;
+    }
+
+    /** Set the link of V, which is at most the maximum vertex given to
+     *  begin, to U. */
+    void setLink(int v, int u) {
+        touch(v);
+        _links[v] = u;
+    }
+
+    /** Mark V as set in the current search, with infinite weight and no
+     *  link, unless it already is. */
+    private void touch(int v) {
+        if (_stamps[v] != _epoch) {
+            _stamps[v] = _epoch;
+            _weights[v] = Double.POSITIVE_INFINITY;
+            _links[v] = 0;
+        }
+    }
+
+    /** Vertex weights. */
+    private double[] _weights;
+    /** Vertex links. */
+    private int[] _links;
+    /** _stamps[V] == _epoch iff V's entries are from this search. */
+    private int[] _stamps;
+    /** The number of the current search. */
+    private int _epoch;
+
+}
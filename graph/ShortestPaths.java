@@ -2,8 +2,6 @@ package graph;
 
 /* See restrictions in Graph.java. */
 
-import java.util.Comparator;
-import java.util.TreeSet;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -12,6 +10,24 @@ import java.util.List;
  *  setPredecessor, the client can determine how to represent the weighting
  *  and the search results.  By overriding estimatedDistance, clients
  *  can search for paths to specific destinations using A* search.
+ *  The vertices yet to be settled are kept in an indexed heap, ordered
+ *  by weight plus estimated distance (and then by vertex number), with
+ *  those values computed once each time a vertex's weight changes.
+ *  For graphs whose edge weights are small whole numbers, code in this
+ *  package may call setEngine or setWeightRange to replace the heap
+ *  with a bucket queue, and for a LabeledGraph whose edge weights are
+ *  the ones to use, setGraphWeights to have setPaths read them from the
+ *  graph's flat arrays.
+ *
+ *  Within this package, when there is a destination,
+ *  setBidirectional(true) makes setPaths search backward from the
+ *  destination over predecessors at the same time as forward from the
+ *  source, stopping once the two searches have met at a shortest path.
+ *  Each search is guided by the average of estimatedDistance and
+ *  estimatedDistanceFromSource, which keeps it exact as long as both
+ *  estimates are consistent: never more than the weight of an edge
+ *  plus the estimate at its far end.  After a bidirectional search,
+ *  only the weights and predecessors along pathTo() are final.
  *  @author Tina Nguyen
  */
 public abstract class ShortestPaths {
@@ -23,38 +39,254 @@ public abstract class ShortestPaths {
 
     /** A shortest path in G from SOURCE to DEST. */
     public ShortestPaths(Graph G, int source, int dest) {
+        this(G, source, dest, new IndexedHeap(), null, null);
+    }
+
+    /** A shortest path in G from SOURCE to DEST, using HEAP to hold the
+     *  vertices not yet settled.  A bidirectional search uses
+     *  REVERSEHEAP and REVERSE for the search from DEST; if they are
+     *  null, they are created when needed. */
+    ShortestPaths(Graph G, int source, int dest, IndexedHeap heap,
+                  IndexedHeap reverseHeap, SearchTable reverse) {
         _G = G;
         _source = source;
         _dest = dest;
-        _tree = new TreeSet<>(compare);
+        _heap = heap;
+        _reverseHeap = reverseHeap;
+        _reverse = reverse;
     }
 
     /** Initialize the shortest paths.  Must be called before using
      *  getWeight, getPredecessor, and pathTo. */
     public void setPaths() {
-        _tree.add(_source);
-        for (int i = 0; i < _G.maxVertex() + 1; i++) {
-            setWeight(i, Double.POSITIVE_INFINITY);
+        if (_bidirectional && _dest != 0) {
+            setPathsBidirectional();
+            return;
         }
+        VertexQueue queue = _queue == null ? _heap : _queue;
+        Adjacency successors =
+            _labeled == null ? null : _G.successorTable();
+        queue.clear();
+        initialize();
         setWeight(_source, 0);
-        while (!_tree.isEmpty()) {
-            int node = _tree.pollFirst();
+        queue.update(_source, estimate(_source));
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
             if (node == _dest) {
                 return;
             }
-            for (int succ : _G.successors(node)) {
-                double weight1 = getWeight(node) + getWeight(node, succ);
-                double weight2 = getWeight(succ);
-                if (weight1 < weight2) {
-                    _tree.remove(succ);
-                    setWeight(succ, weight1);
-                    _tree.add(succ);
-                    setPredecessor(succ, node);
+            double weight = getWeight(node);
+            if (successors != null) {
+                int[] succs = successors.entries(node),
+                    ids = successors.ids(node);
+                double[] weights = _labeled.weights();
+                for (int k = 0, n = successors.size(node); k < n; k += 1) {
+                    lower(queue, node, succs[k],
+                          weight + LabeledGraph.weight(weights, ids[k]));
+                }
+            } else {
+                for (IntIteration it = _G.successorIteration(node);
+                     it.hasNext();) {
+                    int succ = it.nextInt();
+                    lower(queue, node, succ,
+                          weight + getWeight(node, succ));
                 }
             }
         }
     }
 
+    /** Make U the predecessor of V and W its weight, updating its entry
+     *  in QUEUE, if W is less than its current weight. */
+    private void lower(VertexQueue queue, int u, int v, double w) {
+        if (w < getWeight(v)) {
+            setWeight(v, w);
+            queue.update(v, w + estimate(v));
+            setPredecessor(v, u);
+        }
+    }
+
+    /** Returns the estimated distance from V to the destination used to
+     *  order the search: estimatedDistance(V), or 0 with a bucket
+     *  queue. */
+    private double estimate(int v) {
+        return _queue == null ? estimatedDistance(v) : 0;
+    }
+
+    /** Search from the source and the destination at once, as described
+     *  for setBidirectional, and then record the path found. */
+    private void setPathsBidirectional() {
+        if (_reverse == null) {
+            _reverseHeap = new IndexedHeap();
+            _reverse = new SearchTable();
+        }
+        _heap.clear();
+        _reverseHeap.clear();
+        initialize();
+        _reverse.begin(_G.maxVertex());
+        setWeight(_source, 0);
+        _heap.update(_source, potential(_source));
+        _reverse.setWeight(_dest, 0);
+        _reverseHeap.update(_dest, -potential(_dest));
+        double best = _source == _dest ? 0 : Double.POSITIVE_INFINITY;
+        int meetFrom = 0, meetTo = 0;
+
+        while (!_heap.isEmpty() && !_reverseHeap.isEmpty()
+               && _heap.priority(_heap.peek())
+                  + _reverseHeap.priority(_reverseHeap.peek()) < best) {
+            if (_heap.size() <= _reverseHeap.size()) {
+                int u = _heap.poll();
+                double weight = getWeight(u);
+                for (IntIteration it = _G.successorIteration(u);
+                     it.hasNext();) {
+                    int v = it.nextInt();
+                    double weight1 = weight + getWeight(u, v);
+                    if (weight1 < getWeight(v)) {
+                        setWeight(v, weight1);
+                        _heap.update(v, weight1 + potential(v));
+                        setPredecessor(v, u);
+                    }
+                    double total = weight1 + _reverse.weight(v);
+                    if (total < best) {
+                        best = total;
+                        meetFrom = u;
+                        meetTo = v;
+                    }
+                }
+            } else {
+                int v = _reverseHeap.poll();
+                double weight = _reverse.weight(v);
+                for (IntIteration it = _G.predecessorIteration(v);
+                     it.hasNext();) {
+                    int u = it.nextInt();
+                    double weight1 = weight + getWeight(u, v);
+                    if (weight1 < _reverse.weight(u)) {
+                        _reverse.setWeight(u, weight1);
+                        _reverseHeap.update(u, weight1 - potential(u));
+                        _reverse.setLink(u, v);
+                    }
+                    double total = getWeight(u) + weight1;
+                    if (total < best) {
+                        best = total;
+                        meetFrom = u;
+                        meetTo = v;
+                    }
+                }
+            }
+        }
+
+        if (meetTo != 0) {
+            relax(meetFrom, meetTo);
+            for (int v = meetTo; v != _dest; v = _reverse.link(v)) {
+                relax(v, _reverse.link(v));
+            }
+        }
+    }
+
+    /** Make U the predecessor of V if that lowers the weight of V.  Only
+     *  strict improvements are made, so that predecessors never form a
+     *  cycle. */
+    private void relax(int u, int v) {
+        double weight = getWeight(u) + getWeight(u, v);
+        if (weight < getWeight(v)) {
+            setWeight(v, weight);
+            setPredecessor(v, u);
+        }
+    }
+
+    /** Returns the potential of V that orders a bidirectional search
+     *  from the source.  The search from the destination uses its
+     *  negation. */
+    private double potential(int v) {
+        return (estimatedDistance(v) - estimatedDistanceFromSource(v)) / 2;
+    }
+
+    /** The kinds of priority queue that setPaths may use. */
+    enum Engine {
+        /** An indexed heap, for any weights (the default). */
+        HEAP,
+        /** A deque, for edge weights of 0 and 1 (0-1 BFS). */
+        ZERO_ONE,
+        /** A ring of buckets (Dial's algorithm), for whole-number edge
+         *  weights up to the range given to setWeightRange. */
+        DIAL,
+        /** A radix heap, for any whole-number edge weights. */
+        RADIX
+    }
+
+    /** Declare that all edge weights are whole numbers from 0 through
+     *  MAXWEIGHT, and choose the engine best suited to that range. */
+    void setWeightRange(int maxWeight) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("negative weight range");
+        }
+        _maxWeight = maxWeight;
+        if (maxWeight <= 1) {
+            setEngine(Engine.ZERO_ONE);
+        } else if (maxWeight <= DIAL_LIMIT) {
+            setEngine(Engine.DIAL);
+        } else {
+            setEngine(Engine.RADIX);
+        }
+    }
+
+    /** Use a priority queue of kind ENGINE in setPaths.  All but HEAP
+     *  keep the vertices in buckets by weight, taking O(1) amortized
+     *  time per operation rather than O(log n); they require edge
+     *  weights that are whole numbers, ignore estimatedDistance, and do
+     *  not apply to bidirectional searches.  DIAL requires a prior call
+     *  to setWeightRange.  Weights outside the range of the queue cause
+     *  an IllegalArgumentException during setPaths. */
+    void setEngine(Engine engine) {
+        switch (engine) {
+        case HEAP:
+            _queue = null;
+            break;
+        case ZERO_ONE:
+            _queue = new BucketQueue.ZeroOne();
+            break;
+        case DIAL:
+            if (_maxWeight < 0) {
+                throw new IllegalStateException("no weight range declared");
+            }
+            _queue = new BucketQueue.Dial(_maxWeight);
+            break;
+        case RADIX:
+            _queue = new BucketQueue.Radix();
+            break;
+        default:
+            throw new IllegalArgumentException("unknown engine");
+        }
+    }
+
+    /** Iff ON, take the weight of each edge of my graph, which must be a
+     *  LabeledGraph, to be the weight recorded for it there, so that
+     *  setPaths reads the weights straight from the graph's column of
+     *  weights, indexed by the edge ids stored beside its adjacency
+     *  lists, rather than calling getWeight(U, V).  The two-argument
+     *  getWeight must agree with the graph's weights, and is still used
+     *  by bidirectional searches.  Initially off. */
+    void setGraphWeights(boolean on) {
+        if (on && !(_G instanceof LabeledGraph)) {
+            throw new IllegalStateException("graph has no edge weights");
+        }
+        _labeled = on ? (LabeledGraph<?, ?>) _G : null;
+    }
+
+    /** Search from both ends at once (when there is a destination) iff
+     *  ON.  Initially, searches are from the source only. */
+    void setBidirectional(boolean on) {
+        _bidirectional = on;
+    }
+
+    /** Set the weights of all vertices to infinity, in preparation for
+     *  setPaths. */
+    void initialize() {
+        int maxVertex = _G.maxVertex();
+        for (int v = 0; v <= maxVertex; v += 1) {
+            setWeight(v, Double.POSITIVE_INFINITY);
+        }
+    }
+
     /** Returns the starting vertex. */
     public int getSource() {
         return _source;
@@ -86,6 +318,13 @@ public abstract class ShortestPaths {
         return 0.0;
     }
 
+    /** Returns an estimated heuristic weight of the shortest path from the
+     *  source vertex to vertex V, used by bidirectional searches.  This is
+     *  assumed to be less than the actual weight, and is 0 by default. */
+    double estimatedDistanceFromSource(int v) {
+        return 0.0;
+    }
+
     /** Returns the current weight of edge (U, V) in the graph.  If (U, V) is
      *  not in the graph, returns positive infinity. */
     protected abstract double getWeight(int u, int v);
@@ -109,20 +348,8 @@ public abstract class ShortestPaths {
         return pathTo(getDest());
     }
 
-    /** Using comparator to find heuristic for TreeSet. */
-    private final Comparator<Integer> compare = new Comparator<Integer>() {
-        public int compare(Integer node1, Integer node2) {
-            double edge1 = getWeight(node1) + estimatedDistance(node1);
-            double edge2 = getWeight(node2) + estimatedDistance(node2);
-            if (edge1 > edge2) {
-                return 1;
-            }
-            if (edge1 == edge2) {
-                return node1 - node2;
-            }
-            return -1;
-        }
-    };
+    /** Greatest edge weight for which setWeightRange chooses DIAL. */
+    private static final int DIAL_LIMIT = 1024;
 
     /** The graph being searched. */
     protected final Graph _G;
@@ -130,15 +357,21 @@ public abstract class ShortestPaths {
     private final int _source;
     /** The target vertex. */
     private final int _dest;
-    /** The nodes already visited. */
-    private TreeSet<Integer> visitNodes;
-    /** Set of nodes not visited. */
-    private TreeSet<Integer> notVisited;
-    /** Reaching most efficient (least weight)
-     * node.
-     */
-    private int prevNode;
-    /** The fringe to traverse path. */
-    private TreeSet<Integer> _tree;
+    /** The vertices reached but not yet settled. */
+    private final IndexedHeap _heap;
+    /** The vertices reached but not yet settled by the search from the
+     *  destination, if any. */
+    private IndexedHeap _reverseHeap;
+    /** Weights of vertices from the search from the destination, linked
+     *  to their successors on the way there, if any. */
+    private SearchTable _reverse;
+    /** True iff setPaths searches from both ends. */
+    private boolean _bidirectional;
+    /** The bucket queue used by setPaths in place of _heap, or null. */
+    private BucketQueue _queue;
+    /** Greatest edge weight declared by setWeightRange, or -1. */
+    private int _maxWeight = -1;
+    /** My graph, if setPaths reads edge weights from it, or null. */
+    private LabeledGraph<?, ?> _labeled;
 
 }
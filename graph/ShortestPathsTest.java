@@ -0,0 +1,473 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Unit tests for the ShortestPaths classes.
+ *  @author Tina Nguyen
+ */
+public class ShortestPathsTest {
+
+    /** Shortest paths in a graph whose edge weights are held in a
+     *  table. */
+    private static class TablePaths extends SimpleShortestPaths {
+        /** Paths in G from SOURCE to DEST, with edge (U, V) weighing
+         *  WEIGHTS[U][V]. */
+        TablePaths(Graph G, int source, int dest, double[][] weights) {
+            super(G, source, dest);
+            _weights = weights;
+        }
+
+        /** Paths in G from SOURCE to DEST, with edge (U, V) weighing
+         *  WEIGHTS[U][V], kept in WORKSPACE. */
+        TablePaths(Graph G, int source, int dest, double[][] weights,
+                   Workspace workspace) {
+            super(G, source, dest, workspace);
+            _weights = weights;
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return _weights[u][v];
+        }
+
+        /** Edge weights. */
+        private final double[][] _weights;
+    }
+
+    /** Returns a random directed graph with N vertices and about M edges,
+     *  whose weights, drawn from RAND, are stored in WEIGHTS, unless it
+     *  is null. */
+    private static DirectedGraph randomGraph(int n, int m, Random rand,
+                                             double[][] weights) {
+        DirectedGraph g = new DirectedGraph();
+        for (int v = 0; v < n; v += 1) {
+            g.add();
+        }
+        for (int e = 0; e < m; e += 1) {
+            int u = 1 + rand.nextInt(n), v = 1 + rand.nextInt(n);
+            g.add(u, v);
+            if (weights != null) {
+                weights[u][v] = rand.nextInt(20);
+            }
+        }
+        return g;
+    }
+
+    /** Returns the distances from SOURCE in G under WEIGHTS, computed by
+     *  the Bellman-Ford algorithm. */
+    private static double[] distances(Graph G, int source,
+                                      double[][] weights) {
+        return distances(G, source, (u, v) -> weights[u][v]);
+    }
+
+    /** Returns the distances from SOURCE in G under WEIGHT, computed by
+     *  the Bellman-Ford algorithm. */
+    private static double[] distances(Graph G, int source,
+                                      EdgeWeight weight) {
+        double[] dist = new double[G.maxVertex() + 1];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        for (int i = 0; i < G.vertexSize(); i += 1) {
+            for (int[] e : G.edges()) {
+                dist[e[1]] = Math.min(dist[e[1]],
+                                      dist[e[0]] + weight.weight(e[0], e[1]));
+            }
+        }
+        return dist;
+    }
+
+    /** Returns the total weight under WEIGHT of PATH, after checking that
+     *  it runs from SOURCE to DEST along edges of G. */
+    private static double pathWeight(Graph G, List<Integer> path,
+                                     int source, int dest,
+                                     EdgeWeight weight) {
+        assertEquals(source, (int) path.get(0));
+        assertEquals(dest, (int) path.get(path.size() - 1));
+        double total = 0;
+        for (int k = 1; k < path.size(); k += 1) {
+            assertTrue(G.contains(path.get(k - 1), path.get(k)));
+            total += weight.weight(path.get(k - 1), path.get(k));
+        }
+        return total;
+    }
+
+    @Test
+    public void testIndexedHeap() {
+        Random rand = new Random(17);
+        IndexedHeap heap = new IndexedHeap();
+        TreeSet<Long> model = new TreeSet<>();
+        long[] key = new long[200];
+        for (int step = 0; step < 5000; step += 1) {
+            if (rand.nextInt(3) == 0 && !heap.isEmpty()) {
+                int v = heap.poll();
+                long first = model.pollFirst();
+                assertEquals(first % 1000, v);
+                key[v] = 0;
+            } else {
+                int v = 1 + rand.nextInt(199);
+                int p = rand.nextInt(50);
+                if (key[v] != 0) {
+                    model.remove(key[v]);
+                }
+                key[v] = (p + 1) * 1000L + v;
+                model.add(key[v]);
+                heap.update(v, p);
+                assertEquals(p, heap.priority(v), 0.0);
+            }
+            assertEquals(model.size(), heap.size());
+        }
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(1));
+    }
+
+    @Test
+    public void testDistances() {
+        Random rand = new Random(29);
+        for (int trial = 0; trial < 10; trial += 1) {
+            int n = 2 + rand.nextInt(60);
+            double[][] weights = new double[n + 1][n + 1];
+            DirectedGraph g = randomGraph(n, 4 * n, rand, weights);
+            TablePaths paths = new TablePaths(g, 1, 0, weights);
+            paths.setPaths();
+            double[] expected = distances(g, 1, weights);
+            for (int v = 1; v <= n; v += 1) {
+                assertEquals(expected[v], paths.getWeight(v), 0.0);
+                if (v != 1 && expected[v] < Double.POSITIVE_INFINITY) {
+                    assertEquals(expected[v],
+                                 pathWeight(g, paths.pathTo(v), 1, v,
+                                            (x, y) -> weights[x][y]),
+                                 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSharedWorkspace() {
+        Random rand = new Random(31);
+        int n = 50;
+        double[][] weights = new double[n + 1][n + 1];
+        DirectedGraph g = randomGraph(n, 3 * n, rand, weights);
+        SimpleShortestPaths.Workspace work =
+            new SimpleShortestPaths.Workspace();
+        for (int query = 0; query < 30; query += 1) {
+            int source = 1 + rand.nextInt(n);
+            int dest = rand.nextInt(2) == 0 ? 0 : 1 + rand.nextInt(n);
+            TablePaths shared = new TablePaths(g, source, dest, weights, work),
+                fresh = new TablePaths(g, source, dest, weights);
+            shared.setPaths();
+            fresh.setPaths();
+            for (int v = 0; v <= n + 1; v += 1) {
+                assertEquals(fresh.getWeight(v), shared.getWeight(v), 0.0);
+                assertEquals(fresh.getPredecessor(v),
+                             shared.getPredecessor(v));
+            }
+        }
+    }
+
+    @Test
+    public void testBidirectional() {
+        Random rand = new Random(37);
+        for (int trial = 0; trial < 40; trial += 1) {
+            int n = 2 + rand.nextInt(60);
+            double[][] weights = new double[n + 1][n + 1];
+            DirectedGraph g = randomGraph(n, 3 * n, rand, weights);
+            final double[] x = new double[n + 1], y = new double[n + 1];
+            if (trial % 2 == 1) {
+                for (int v = 1; v <= n; v += 1) {
+                    x[v] = rand.nextInt(10);
+                    y[v] = rand.nextInt(10);
+                }
+                for (int[] e : g.edges()) {
+                    weights[e[0]][e[1]] = Math.hypot(x[e[0]] - x[e[1]],
+                                                     y[e[0]] - y[e[1]])
+                        + rand.nextInt(5);
+                }
+            }
+            int source = 1 + rand.nextInt(n), dest = 1 + rand.nextInt(n);
+            TablePaths paths = new TablePaths(g, source, dest, weights) {
+                @Override
+                protected double estimatedDistance(int v) {
+                    return Math.hypot(x[v] - x[dest], y[v] - y[dest]);
+                }
+
+                @Override
+                double estimatedDistanceFromSource(int v) {
+                    return Math.hypot(x[v] - x[source], y[v] - y[source]);
+                }
+            };
+            paths.setBidirectional(true);
+            paths.setPaths();
+            double expected = distances(g, source, weights)[dest];
+            assertEquals(expected, paths.getWeight(dest), 1e-9);
+            if (expected < Double.POSITIVE_INFINITY) {
+                assertEquals(expected,
+                             pathWeight(g, paths.pathTo(dest), source, dest,
+                                        (u, v) -> weights[u][v]),
+                             1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testDistanceMatrix() {
+        Random rand = new Random(47);
+        for (int trial = 0; trial < 10; trial += 1) {
+            int n = 2 + rand.nextInt(60);
+            final double[][] weights = new double[n + 1][n + 1];
+            DirectedGraph g = randomGraph(n, 3 * n, rand, weights);
+            int[] sources = new int[1 + rand.nextInt(20)],
+                targets = new int[1 + rand.nextInt(20)];
+            Arrays.setAll(sources, i -> 1 + rand.nextInt(n));
+            Arrays.setAll(targets, i -> 1 + rand.nextInt(n));
+            DistanceMatrix matrix =
+                new DistanceMatrix(g, (u, v) -> weights[u][v], sources,
+                                   targets, true);
+            for (int i = 0; i < sources.length; i += 1) {
+                double[] dist = distances(g, sources[i], weights);
+                for (int j = 0; j < targets.length; j += 1) {
+                    assertEquals(dist[targets[j]],
+                                 matrix.distances()[i][j], 0.0);
+                    List<Integer> path = matrix.path(i, j);
+                    if (dist[targets[j]] == Double.POSITIVE_INFINITY) {
+                        assertTrue(path.isEmpty());
+                    } else {
+                        assertEquals(dist[targets[j]],
+                                     pathWeight(g, path, sources[i],
+                                                targets[j],
+                                                (u, v) -> weights[u][v]),
+                                     0.0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeltaStepping() {
+        Random rand = new Random(53);
+        for (int trial = 0; trial < 30; trial += 1) {
+            int n = trial < 25 ? 2 + rand.nextInt(60) : 2000;
+            DirectedGraph g = randomGraph(n, 3 * n, rand, null);
+            final int salt = rand.nextInt();
+            EdgeWeight weight = (u, v) -> ((u * 31 + v) ^ salt) & 15;
+            DeltaSteppingShortestPaths paths =
+                new DeltaSteppingShortestPaths(g, 1) {
+                    @Override
+                    protected double getWeight(int u, int v) {
+                        return weight.weight(u, v);
+                    }
+                };
+            if (trial % 2 == 0) {
+                paths.setDelta(1 + rand.nextInt(40));
+            }
+            paths.setPaths();
+            double[] dist = distances(g, 1, weight);
+            for (int v = 1; v <= n; v += 1) {
+                assertEquals(dist[v], paths.getWeight(v), 0.0);
+                if (v != 1 && dist[v] < Double.POSITIVE_INFINITY) {
+                    assertEquals(dist[v],
+                                 pathWeight(g, paths.pathTo(v), 1, v, weight),
+                                 0.0);
+                }
+            }
+        }
+        DeltaSteppingShortestPaths paths =
+            new DeltaSteppingShortestPaths(randomGraph(2, 2, rand, null), 1) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return 1;
+                }
+            };
+        try {
+            paths.setBidirectional(true);
+            fail("bidirectional delta-stepping");
+        } catch (IllegalStateException excp) {
+            /* Expected. */
+        }
+        try {
+            paths.setEngine(ShortestPaths.Engine.RADIX);
+            fail("delta-stepping with another engine");
+        } catch (IllegalStateException excp) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    public void testEngines() {
+        Random rand = new Random(59);
+        for (int trial = 0; trial < 20; trial += 1) {
+            int n = 2 + rand.nextInt(80);
+            double[][] weights = new double[n + 1][n + 1];
+            DirectedGraph g = randomGraph(n, 3 * n, rand, weights);
+            double[][] bits = new double[n + 1][n + 1];
+            for (int u = 1; u <= n; u += 1) {
+                for (int v = 1; v <= n; v += 1) {
+                    bits[u][v] = weights[u][v] % 2;
+                }
+            }
+            double[] expected = distances(g, 1, weights),
+                expectedBits = distances(g, 1, bits);
+            for (ShortestPaths.Engine engine
+                     : ShortestPaths.Engine.values()) {
+                boolean zeroOne = engine == ShortestPaths.Engine.ZERO_ONE;
+                TablePaths paths =
+                    new TablePaths(g, 1, 0, zeroOne ? bits : weights);
+                paths.setWeightRange(zeroOne ? 1 : 19);
+                paths.setEngine(engine);
+                paths.setPaths();
+                for (int v = 1; v <= n; v += 1) {
+                    assertEquals((zeroOne ? expectedBits : expected)[v],
+                                 paths.getWeight(v), 0.0);
+                }
+            }
+            TablePaths inferred = new TablePaths(g, 1, 0, bits);
+            inferred.setWeightRange(1);
+            inferred.setPaths();
+            for (int v = 1; v <= n; v += 1) {
+                assertEquals(expectedBits[v], inferred.getWeight(v), 0.0);
+            }
+        }
+        DirectedGraph g = new DirectedGraph();
+        g.add();
+        g.add();
+        g.add(1, 2);
+        double[][] weights = { {}, { 0, 0, 2.5 }, { 0, 0, 0 } };
+        TablePaths paths = new TablePaths(g, 1, 0, weights);
+        paths.setEngine(ShortestPaths.Engine.RADIX);
+        try {
+            paths.setPaths();
+            fail("fractional weight accepted");
+        } catch (IllegalArgumentException excp) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    public void testPathCache() {
+        Random rand = new Random(61);
+        int n = 30;
+        double[][] weights = new double[n + 1][n + 1];
+        DirectedGraph g = randomGraph(n, 4 * n, rand, weights);
+        LabeledGraph<String, String> labeled = new LabeledGraph<>(g);
+        PathCache cache = new PathCache(labeled, 8, 1 << 20);
+        int[] sources = new int[20], dests = new int[20];
+        for (int i = 0; i < sources.length; i += 1) {
+            sources[i] = 1 + rand.nextInt(n);
+            dests[i] = 1 + rand.nextInt(n);
+        }
+        for (int round = 0; round < 3; round += 1) {
+            for (int i = 0; i < 6; i += 1) {
+                TablePaths fresh =
+                    new TablePaths(labeled, sources[i], dests[i], weights);
+                fresh.setPaths();
+                assertEquals(fresh.pathTo(), cache.pathTo(
+                    new TablePaths(labeled, sources[i], dests[i],
+                                   weights)));
+            }
+        }
+        assertEquals(6, cache.size());
+        assertEquals(12, cache.hits());
+        assertEquals(6, cache.misses());
+        for (int i = 0; i < sources.length; i += 1) {
+            cache.pathTo(new TablePaths(labeled, sources[i], dests[i],
+                                        weights));
+        }
+        assertTrue(cache.size() <= 8);
+        assertTrue(cache.evictions() > 0);
+
+        cache.pathTo(new TablePaths(labeled, 1, 2, weights));
+        assertNotNull(cache.get(1, 2));
+        labeled.setLabel(1, "one");
+        assertNull(cache.get(1, 2));
+        cache.pathTo(new TablePaths(labeled, 1, 2, weights));
+        labeled.add(1, 2);
+        assertNull(cache.get(1, 2));
+        TablePaths direct = new TablePaths(labeled, 1, 2, weights);
+        assertEquals(Arrays.asList(1, 2), cache.pathTo(direct));
+
+        PathCache small = new PathCache(g, 100, 400);
+        for (int v = 1; v <= n; v += 1) {
+            small.pathTo(new TablePaths(g, 1, v, weights));
+            assertTrue(small.bytes() <= 400);
+        }
+
+        PathCache popular = new PathCache(g, 10, 1 << 20);
+        for (int round = 0; round < 3; round += 1) {
+            for (int v = 1; v <= 5; v += 1) {
+                popular.pathTo(new TablePaths(g, 1, v, weights));
+            }
+        }
+        for (int v = 6; v <= n; v += 1) {
+            popular.pathTo(new TablePaths(g, 2, v, weights));
+        }
+        for (int v = 1; v <= 5; v += 1) {
+            assertNotNull(popular.get(1, v));
+        }
+        assertTrue(popular.size() <= 10);
+    }
+
+    @Test
+    public void testGraphWeights() {
+        Random rand = new Random(67);
+        int n = 60;
+        double[][] weights = new double[n + 1][n + 1];
+        DirectedGraph g = randomGraph(n, 5 * n, rand, weights);
+        LabeledGraph<String, String> labeled = new LabeledGraph<>(g);
+        for (int[] e : labeled.edges()) {
+            assertEquals(1.0, labeled.getWeight(e[0], e[1]), 0.0);
+            labeled.setWeight(e[0], e[1], weights[e[0]][e[1]]);
+        }
+        double[][] wrong = new double[n + 1][n + 1];
+        for (int source = 1; source <= n; source += 7) {
+            double[] expected = distances(g, source, weights);
+            TablePaths paths = new TablePaths(labeled, source, 0, wrong);
+            paths.setGraphWeights(true);
+            paths.setPaths();
+            for (int v = 1; v <= n; v += 1) {
+                assertEquals(expected[v], paths.getWeight(v), 0.0);
+            }
+        }
+
+        LabeledGraph<String, String> isolated =
+            new LabeledGraph<String, String>(g) {
+                @Override
+                public Iteration<Integer> successors(int v) {
+                    return Iteration.iteration(Arrays.<Integer>asList());
+                }
+            };
+        TablePaths none = new TablePaths(isolated, 1, 0, weights);
+        none.setGraphWeights(true);
+        none.setPaths();
+        for (int v = 2; v <= n; v += 1) {
+            assertEquals(Double.POSITIVE_INFINITY, none.getWeight(v), 0.0);
+        }
+
+        int u = 1, v = g.successors(1).next();
+        long version = labeled.version();
+        labeled.setWeight(u, v, 3.5);
+        assertEquals(3.5, labeled.getWeight(u, v), 0.0);
+        assertTrue(labeled.version() > version);
+        labeled.remove(u, v);
+        labeled.add(u, v);
+        assertEquals(1.0, labeled.getWeight(u, v), 0.0);
+        try {
+            labeled.setWeight(n + 1, 1, 0);
+            fail("weight of missing edge");
+        } catch (IllegalArgumentException excp) {
+            /* Expected. */
+        }
+        try {
+            new TablePaths(g, 1, 0, weights).setGraphWeights(true);
+            fail("graph weights of unlabeled graph");
+        } catch (IllegalStateException excp) {
+            /* Expected. */
+        }
+    }
+}
@@ -16,7 +16,39 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     /** A shortest path in G from SOURCE to DEST. */
     public SimpleShortestPaths(Graph G, int source, int dest) {
-        super(G, source, dest);
+        this(G, source, dest, new Workspace());
+    }
+
+    /** A shortest path in G from SOURCE to DEST, whose results are kept
+     *  in WORKSPACE. */
+    SimpleShortestPaths(Graph G, int source, int dest,
+                        Workspace workspace) {
+        super(G, source, dest, workspace._heap, workspace._reverseHeap,
+              workspace._backward);
+        _table = workspace._forward;
+    }
+
+    /** Storage for the weights and predecessors found by setPaths, which
+     *  may be reused by one SimpleShortestPaths after another.  Stale
+     *  entries are recognized by their stamps (see SearchTable) rather
+     *  than cleared, so that a search touches only the vertices it
+     *  reaches.  A Workspace holds the results of one search at a time:
+     *  those of a SimpleShortestPaths are valid until another begins
+     *  setPaths with the same Workspace. */
+    static class Workspace {
+        /** An empty Workspace. */
+        Workspace() {
+        }
+
+        /** Weights and predecessors from the source. */
+        private final SearchTable _forward = new SearchTable();
+        /** Weights and successors toward the destination, for
+         *  bidirectional searches. */
+        private final SearchTable _backward = new SearchTable();
+        /** The vertices not yet settled from the source. */
+        private final IndexedHeap _heap = new IndexedHeap();
+        /** The vertices not yet settled from the destination. */
+        private final IndexedHeap _reverseHeap = new IndexedHeap();
     }
 
     /** Returns the current weight of edge (U, V) in the graph.  If (U, V) is
@@ -26,27 +58,30 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     @Override
     public double getWeight(int v) {
-        return _weight[v];
+        return _table.weight(v);
     }
 
     @Override
     protected void setWeight(int v, double w) {
-        _weight[v] = w;
+        _table.setWeight(v, w);
     }
 
     @Override
     public int getPredecessor(int v) {
-        return _predecessor[v];
+        return _table.link(v);
     }
 
     @Override
     protected void setPredecessor(int v, int u) {
-        _predecessor[v] = u;
+        _table.setLink(v, u);
+    }
+
+    @Override
+    void initialize() {
+        _table.begin(_G.maxVertex());
     }
 
-    /** Vertices weights. */
-    private double[] _weight = new double[_G.maxVertex() + 1];
-    /** Edge predecessor. */
-    private int[] _predecessor = new int[_G.maxVertex() + 1];
+    /** Vertex weights and predecessors. */
+    private final SearchTable _table;
 
 }
@@ -1,9 +1,10 @@
 package graph;
 
 /* See restrictions in Graph.java. */
-import java.util.ArrayList;
+import java.util.AbstractQueue;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Queue;
 
 /** Implements a generalized traversal of a graph.  At any given time,
@@ -22,7 +23,16 @@ import java.util.Queue;
  *  the addition of neighbor vertices to the fringe when a vertex is visited.
  *
  *  Traversals may be interrupted or restarted, remembering the previously
- *  marked vertices.
+ *  marked vertices.  Marks are kept in arrays indexed by vertex that hold
+ *  the generation in which each vertex was marked (or post-visited), so
+ *  that marking and testing take constant time, and clear simply starts
+ *  a new generation.
+ *
+ *  A traversal stops early when visit or postVisit returns false.
+ *  Within this package, it may also be stopped after as many visits as
+ *  allowed by setVisitLimit or confined to vertices near the start with
+ *  setDepthLimit, and a traversal that stopped early may be continued
+ *  with resume.
  *  @author Tina Nguyen
  */
 public abstract class Traversal {
@@ -30,31 +40,97 @@ public abstract class Traversal {
     /** A Traversal of G, using FRINGE as the fringe. */
     protected Traversal(Graph G, Queue<Integer> fringe) {
         _G = G;
-        _fringe = fringe;
-        _marked = new ArrayList<>();
-        _postVisited = new ArrayList<>();
+        _queue = fringe;
+        _fringe = new Fringe();
+        _marked = new int[G.maxVertex() + 1];
+        _postVisited = new int[G.maxVertex() + 1];
+        _generation = 1;
+        _depthLimit = Integer.MAX_VALUE;
+        _visitLimit = Integer.MAX_VALUE;
     }
 
-    /** Unmark all vertices in the graph. */
+    /** Unmark all vertices in the graph, and abandon any interrupted
+     *  traversal. */
     public void clear() {
-        _marked.clear();
+        _generation += 1;
+        if (_generation == 0) {
+            Arrays.fill(_marked, 0);
+            Arrays.fill(_postVisited, 0);
+            if (_reached != null) {
+                Arrays.fill(_reached, 0);
+            }
+            _generation = 1;
+        }
+        _queue.clear();
+        _unexpanded = 0;
+        _interrupted = false;
+    }
+
+    /** Visit only vertices that are reached from the starting vertices by
+     *  paths of at most LIMIT edges.  (For a breadth-first traversal,
+     *  these are all such vertices; for others, some may be missed.)  A
+     *  vertex's depth is that of the visited vertex whose successors
+     *  first added it to the fringe at the least depth, plus one. */
+    void setDepthLimit(int limit) {
+        _depthLimit = limit;
+        if (_levels == null && limit != Integer.MAX_VALUE) {
+            _levels = new int[_marked.length];
+            _reached = new int[_marked.length];
+        }
+    }
+
+    /** Stop each call of traverse or resume after LIMIT visits (at least
+     *  one). */
+    void setVisitLimit(int limit) {
+        _visitLimit = limit;
+    }
+
+    /** Returns true iff the last call of traverse or resume stopped
+     *  before the traversal was complete, so that resume would continue
+     *  it. */
+    boolean interrupted() {
+        return _interrupted;
     }
 
     /** Initialize the fringe to V0 and perform a traversal. */
     public void traverse(Collection<Integer> V0) {
-        _fringe.clear();
+        _queue.clear();
+        _unexpanded = 0;
+        _parentLevel = -1;
         _fringe.addAll(V0);
-        while (!_fringe.isEmpty()) {
-            int pop = _fringe.remove();
+        resume();
+    }
+
+    /** Continue the traversal from where it was interrupted.  Does
+     *  nothing if it was not. */
+    void resume() {
+        _interrupted = false;
+        int visits = 0;
+        while (true) {
+            if (_unexpanded != 0) {
+                int v = _unexpanded;
+                _unexpanded = 0;
+                _queue.add(v);
+                _parentLevel = level(v);
+                processSuccessors(v);
+            }
+            if (_queue.isEmpty()) {
+                return;
+            }
+            int pop = _queue.remove();
             if (!marked(pop)) {
                 mark(pop);
-                visit(pop);
-                _fringe.add(pop);
-                processSuccessors(pop);
-            } else {
-                if (shouldPostVisit(pop) && !_postVisited.contains(pop)) {
-                    postVisit(pop);
-                    _postVisited.add(pop);
+                visits += 1;
+                _unexpanded = pop;
+                if (!visit(pop) || visits >= _visitLimit) {
+                    _interrupted = unfinished();
+                    return;
+                }
+            } else if (shouldPostVisit(pop) && !stamped(_postVisited, pop)) {
+                _postVisited = stamp(_postVisited, pop);
+                if (!postVisit(pop)) {
+                    _interrupted = unfinished();
+                    return;
                 }
             }
         }
@@ -68,15 +144,67 @@ public abstract class Traversal {
 
     /** Returns true iff V has been marked. */
     protected boolean marked(int v) {
-        if (_marked.contains(v)) {
-            return true;
-        }
-        return false;
+        return stamped(_marked, v);
     }
 
     /** Mark vertex V. */
     protected void mark(int v) {
-        _marked.add(v);
+        _marked = stamp(_marked, v);
+    }
+
+    /** Returns the depth limit. */
+    final int depthLimit() {
+        return _depthLimit;
+    }
+
+    /** Returns the visit limit. */
+    final int visitLimit() {
+        return _visitLimit;
+    }
+
+    /** Record whether the current traversal is INTERRUPTED. */
+    final void setInterrupted(boolean interrupted) {
+        _interrupted = interrupted;
+    }
+
+    /** Returns true iff the current traversal has work left: a visited
+     *  vertex whose successors are yet to be processed, or a vertex in
+     *  the fringe. */
+    private boolean unfinished() {
+        return _unexpanded != 0 || !_queue.isEmpty();
+    }
+
+    /** Returns the depth of V, which has been added to the fringe. */
+    private int level(int v) {
+        return _levels != null && stamped(_reached, v) ? _levels[v] : 0;
+    }
+
+    /** Record that V has been reached at depth LEVEL. */
+    private void reach(int v, int level) {
+        if (!stamped(_reached, v) || _levels[v] > level) {
+            _reached = stamp(_reached, v);
+            if (v >= _levels.length) {
+                _levels = Arrays.copyOf(_levels, _reached.length);
+            }
+            _levels[v] = level;
+        }
+    }
+
+    /** Returns true iff STAMPS records V in the current generation. */
+    private boolean stamped(int[] stamps, int v) {
+        return v >= 0 && v < stamps.length && stamps[v] == _generation;
+    }
+
+    /** Record V in STAMPS for the current generation, and return STAMPS,
+     *  or a larger copy of it if V is beyond its end (as when vertices
+     *  have been added to the graph since I was created). */
+    private int[] stamp(int[] stamps, int v) {
+        if (v >= stamps.length) {
+            stamps = Arrays.copyOf(stamps,
+                                   Math.max(v + 1, 2 * stamps.length));
+        }
+        stamps[v] = _generation;
+        return stamps;
     }
 
     /** Perform a visit on vertex V.  Returns false iff the traversal is to
@@ -105,9 +233,12 @@ public abstract class Traversal {
 
     /** Process the successors of vertex U.  Assumes U has been visited.  This
      *  default implementation simply processes each successor using
-     *  processSuccessor. */
+     *  processSuccessor, in reverse order if reverseSuccessors(U). */
     protected void processSuccessors(int u) {
-        for (int v : _G.successors(u)) {
+        IntIteration succ = reverseSuccessors(u)
+            ? _G.reverseSuccessorIteration(u) : _G.successorIteration(u);
+        for (; succ.hasNext();) {
+            int v = succ.nextInt();
             if (processSuccessor(u, v)) {
                 _fringe.add(v);
             }
@@ -120,12 +251,78 @@ public abstract class Traversal {
         return !marked(v);
     }
 
+    /** Returns the graph being traversed. */
+    final Graph graph() {
+        return _G;
+    }
+
+    /** The fringe as seen by clients.  Vertices added to it are tagged
+     *  with their depth, and those beyond the depth limit are dropped. */
+    private class Fringe extends AbstractQueue<Integer> {
+        @Override
+        public boolean add(Integer v) {
+            return offer(v);
+        }
+
+        @Override
+        public boolean offer(Integer v) {
+            int level = _parentLevel + 1;
+            if (level > _depthLimit) {
+                return false;
+            }
+            if (_levels != null) {
+                reach(v, level);
+            }
+            return _queue.offer(v);
+        }
+
+        @Override
+        public Integer poll() {
+            return _queue.poll();
+        }
+
+        @Override
+        public Integer peek() {
+            return _queue.peek();
+        }
+
+        @Override
+        public int size() {
+            return _queue.size();
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return _queue.iterator();
+        }
+    }
+
     /** The graph being traversed. */
     private final Graph _G;
+    /** The fringe, as supplied to my constructor. */
+    private final Queue<Integer> _queue;
     /** The fringe. */
     protected final Queue<Integer> _fringe;
-    /** Marked vertices. */
-    private ArrayList<Integer> _marked;
-    /** Vertices post visited. */
-    private ArrayList<Integer> _postVisited;
+    /** A visited vertex whose successors are yet to be processed, or 0. */
+    private int _unexpanded;
+    /** True iff the last traversal stopped early. */
+    private boolean _interrupted;
+    /** Greatest depth of vertices to visit. */
+    private int _depthLimit;
+    /** Greatest number of visits per call of traverse or resume. */
+    private int _visitLimit;
+    /** Depth of the vertex whose successors are being processed. */
+    private int _parentLevel;
+    /** _reached[V] == _generation iff _levels[V] is V's depth, if there
+     *  is a depth limit. */
+    private int[] _reached;
+    /** Depths of vertices reached, if there is a depth limit. */
+    private int[] _levels;
+    /** _marked[V] == _generation iff V is marked. */
+    private int[] _marked;
+    /** _postVisited[V] == _generation iff V has been post-visited. */
+    private int[] _postVisited;
+    /** The current generation of marks.  Never 0, which is the value of
+     *  unused entries. */
+    private int _generation;
 }
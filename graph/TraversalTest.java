@@ -1,5 +1,8 @@
 package graph;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -63,4 +66,163 @@ public class TraversalTest {
 
     }
 
+    @Test
+    public void testClearAndGrowth() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(2, 3);
+
+        final ArrayList<Integer> post = new ArrayList<>();
+        DepthFirstTraversal dft = new DepthFirstTraversal(g) {
+            @Override
+            protected boolean postVisit(int v) {
+                post.add(v);
+                return true;
+            }
+        };
+        dft.traverse(1);
+        assertEquals(Arrays.asList(3, 2, 1), post);
+        dft.traverse(2);
+        assertEquals(Arrays.asList(3, 2, 1), post);
+
+        dft.clear();
+        assertFalse(dft.marked(1));
+        dft.traverse(2);
+        assertEquals(Arrays.asList(3, 2, 1, 3, 2), post);
+        assertFalse(dft.marked(1));
+
+        int v = g.add();
+        g.add(3, v);
+        dft.clear();
+        dft.traverse(1);
+        assertTrue(dft.marked(v));
+        assertEquals(Arrays.asList(3, 2, 1, 3, 2, v, 3, 2, 1), post);
+    }
+
+    /** A depth-first traversal that records its visits as V and its
+     *  post-visits as -V, and reverses the successors of even vertices.
+     *  It stops after recording _stop. */
+    private static class Recorder extends DepthFirstTraversal {
+        /** A recording traversal of G, using frames iff FRAMES. */
+        Recorder(Graph G, boolean frames) {
+            super(G, frames);
+        }
+
+        @Override
+        protected boolean visit(int v) {
+            _events.add(v);
+            return v != _stop;
+        }
+
+        @Override
+        protected boolean postVisit(int v) {
+            _events.add(-v);
+            return -v != _stop;
+        }
+
+        @Override
+        protected boolean reverseSuccessors(int v) {
+            return v % 2 == 0;
+        }
+
+        /** The events so far. */
+        private final ArrayList<Integer> _events = new ArrayList<>();
+        /** The event that ends the traversal, if any. */
+        private int _stop;
+    }
+
+    @Test
+    public void testFrameStackDFT() {
+        Random rand = new Random(11);
+        for (int trial = 0; trial < 20; trial += 1) {
+            Graph g = trial % 2 == 0 ? new DirectedGraph()
+                : new UndirectedGraph();
+            int n = 1 + rand.nextInt(40);
+            for (int v = 0; v < n; v += 1) {
+                g.add();
+            }
+            for (int e = rand.nextInt(3 * n); e > 0; e -= 1) {
+                g.add(1 + rand.nextInt(n), 1 + rand.nextInt(n));
+            }
+            Recorder fringe = new Recorder(g, false),
+                frames = new Recorder(g, true);
+            fringe.traverse(Arrays.asList(1, n));
+            frames.traverse(Arrays.asList(1, n));
+            assertEquals(fringe._events, frames._events);
+            int v0 = 1 + rand.nextInt(n);
+            fringe.traverse(v0);
+            frames.traverse(v0);
+            assertEquals(fringe._events, frames._events);
+        }
+    }
+
+    @Test
+    public void testInterruptAndResume() {
+        Random rand = new Random(5);
+        for (int trial = 0; trial < 20; trial += 1) {
+            DirectedGraph g = new DirectedGraph();
+            int n = 2 + rand.nextInt(40);
+            for (int v = 0; v < n; v += 1) {
+                g.add();
+            }
+            for (int e = rand.nextInt(3 * n); e > 0; e -= 1) {
+                g.add(1 + rand.nextInt(n), 1 + rand.nextInt(n));
+            }
+            Recorder whole = new Recorder(g, false);
+            whole.traverse(1);
+            for (boolean useFrames : new boolean[] { false, true }) {
+                Recorder stopped = new Recorder(g, useFrames);
+                stopped._stop =
+                    (rand.nextBoolean() ? 1 : -1) * (1 + rand.nextInt(n));
+                stopped.traverse(1);
+                int k = stopped._events.indexOf(stopped._stop);
+                assertEquals(k < 0 ? whole._events.size() : k + 1,
+                             stopped._events.size());
+                assertEquals(k >= 0 && k + 1 < whole._events.size(),
+                             stopped.interrupted());
+                stopped.resume();
+                assertFalse(stopped.interrupted());
+                assertEquals(whole._events, stopped._events);
+
+                Recorder limited = new Recorder(g, useFrames);
+                limited.setVisitLimit(3);
+                limited.traverse(1);
+                while (limited.interrupted()) {
+                    limited.resume();
+                }
+                assertEquals(whole._events, limited._events);
+            }
+        }
+    }
+
+    @Test
+    public void testDepthLimit() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 7; i += 1) {
+            g.add();
+        }
+        for (int v = 1; v < 6; v += 1) {
+            g.add(v, v + 1);
+        }
+        g.add(1, 7);
+        g.add(7, 4);
+
+        BreadthFirstTraversal bft = new BreadthFirstTraversal(g);
+        bft.setDepthLimit(2);
+        bft.traverse(1);
+        assertTrue(bft.marked(3));
+        assertTrue(bft.marked(4));
+        assertFalse(bft.marked(5));
+
+        DepthFirstTraversal dft = new DepthFirstTraversal(g, true);
+        dft.setDepthLimit(2);
+        dft.traverse(1);
+        assertTrue(dft.marked(3));
+        assertTrue(dft.marked(4));
+        assertFalse(dft.marked(5));
+    }
+
 }
@@ -9,6 +9,20 @@ package graph;
  */
 public class UndirectedGraph extends GraphObj {
 
+    /** An empty undirected graph. */
+    public UndirectedGraph() {
+        this(true);
+    }
+
+    /** An empty undirected graph that keeps a hash index of its edges iff
+     *  INDEXEDGES.  The index makes contains(u, v), edge removal, and
+     *  edge-label lookup take constant expected time.  Without it, they
+     *  scan the adjacency lists of the endpoints, but each edge takes
+     *  roughly 30 fewer bytes. */
+    UndirectedGraph(boolean indexEdges) {
+        super(indexEdges);
+    }
+
     @Override
     public boolean isDirected() {
         return false;
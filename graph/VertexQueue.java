@@ -0,0 +1,25 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/** A priority queue of vertices, as used by ShortestPaths.setPaths to
+ *  hold the vertices not yet settled.
+ *  @author Tina Nguyen
+ */
+interface VertexQueue {
+
+    /** Returns true iff I am empty. */
+    boolean isEmpty();
+
+    /** Set the priority of V to PRIORITY, adding V if it is not
+     *  present. */
+    void update(int v, double priority);
+
+    /** Remove and return a vertex with the least priority.  I must not
+     *  be empty. */
+    int poll();
+
+    /** Remove all vertices. */
+    void clear();
+
+}
@@ -0,0 +1,147 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/* See restrictions in Graph.java. */
+
+/** The set of vertex numbers of a GraphObj.  Membership is a bit set,
+ *  and the size and maximum element are maintained as vertices come and
+ *  go, so that all queries take constant time.  New vertex numbers come
+ *  from an IdAllocator, and so are always the smallest ones free.
+ *  @author Tina Nguyen
+ */
+class VertexSet {
+
+    /** An empty set. */
+    VertexSet() {
+        this(0);
+    }
+
+    /** A set containing vertices 1 .. N. */
+    VertexSet(int n) {
+        _bits = new long[Math.max(INITIAL_WORDS, (n >>> WORD_SHIFT) + 1)];
+        for (int w = 0; w < (n >>> WORD_SHIFT); w += 1) {
+            _bits[w] = -1L;
+        }
+        _bits[n >>> WORD_SHIFT] = -1L >>> (BITS_PER_WORD - 1 - (n & 63));
+        _bits[0] &= ~1L;
+        _ids = new IdAllocator(n);
+        _max = n;
+    }
+
+    /** Returns the number of vertices in me. */
+    int size() {
+        return _ids.size();
+    }
+
+    /** Returns my largest vertex, or 0 if I am empty. */
+    int max() {
+        return _max;
+    }
+
+    /** Returns true iff V is one of my vertices. */
+    boolean contains(int v) {
+        return v > 0 && v <= _max
+            && (_bits[v >>> WORD_SHIFT] & (1L << v)) != 0;
+    }
+
+    /** Add the smallest positive integer that is not one of my vertices
+     *  to me, and return it. */
+    int add() {
+        int v = _ids.allocate();
+        if ((v >>> WORD_SHIFT) >= _bits.length) {
+            _bits = Arrays.copyOf(_bits, 2 * (v >>> WORD_SHIFT) + 1);
+        }
+        _bits[v >>> WORD_SHIFT] |= 1L << v;
+        _max = Math.max(_max, v);
+        return v;
+    }
+
+    /** Remove V, which must be one of my vertices. */
+    void remove(int v) {
+        _bits[v >>> WORD_SHIFT] &= ~(1L << v);
+        _ids.free(v);
+        if (v == _max) {
+            _max = previous(v);
+        }
+    }
+
+    /** Returns the smallest vertex of mine that is >= V, or 0 if there is
+     *  none. */
+    int next(int v) {
+        if (v > _max) {
+            return 0;
+        }
+        v = Math.max(v, 1);
+        int w = v >>> WORD_SHIFT;
+        long word = _bits[w] & (-1L << v);
+        while (word == 0) {
+            w += 1;
+            if (w > (_max >>> WORD_SHIFT)) {
+                return 0;
+            }
+            word = _bits[w];
+        }
+        return (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+    }
+
+    /** Returns an iteration over my vertices in increasing order.  It
+     *  reads my bits in place, and so is invalid once I am modified. */
+    IntIteration iteration() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _next != 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_next == 0) {
+                    throw new NoSuchElementException();
+                }
+                int v = _next;
+                _next = VertexSet.this.next(v + 1);
+                return v;
+            }
+
+            /** The next vertex to deliver, or 0 if none. */
+            private int _next = VertexSet.this.next(1);
+        };
+    }
+
+    /** Returns the largest vertex of mine that is < V, or 0 if there is
+     *  none.  Takes time proportional to the length of the gap. */
+    private int previous(int v) {
+        v -= 1;
+        if (v <= 0) {
+            return 0;
+        }
+        int w = v >>> WORD_SHIFT;
+        long word = _bits[w] & (-1L >>> (BITS_PER_WORD - 1 - (v & 63)));
+        while (word == 0) {
+            if (w == 0) {
+                return 0;
+            }
+            w -= 1;
+            word = _bits[w];
+        }
+        return (w << WORD_SHIFT) + BITS_PER_WORD - 1
+            - Long.numberOfLeadingZeros(word);
+    }
+
+    /** log2 of BITS_PER_WORD. */
+    private static final int WORD_SHIFT = 6;
+    /** Number of bits in an element of _bits. */
+    private static final int BITS_PER_WORD = 1 << WORD_SHIFT;
+    /** Initial length of _bits. */
+    private static final int INITIAL_WORDS = 4;
+
+    /** Bit V % 64 of _bits[V / 64] is set iff V is one of my vertices. */
+    private long[] _bits;
+    /** Source of new vertex numbers. */
+    private final IdAllocator _ids;
+    /** My largest vertex, or 0. */
+    private int _max;
+
+}
@@ -0,0 +1,664 @@
+package trip;
+
+import graph.LabeledGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/** A contraction hierarchy of a map, whose edges weigh the lengths of
+ *  their Roads, which answers shortest path queries between pairs of
+ *  locations far faster than a search of the map itself.  The vertices
+ *  are ranked and then contracted from least to greatest rank.
+ *  Contracting V removes it from the map and adds a shortcut (U, W) via
+ *  V for each pair of edges (U, V), (V, W) that form the only shortest
+ *  path from U to W among the remaining vertices (as far as a limited
+ *  witness search can tell).  A query then searches forward from the
+ *  source and backward from the destination, in each case only along
+ *  edges and shortcuts that lead to higher-ranked vertices, and expands
+ *  the shortcuts on the best path it finds into the original edges.
+ *
+ *  Ranking is by the number of shortcuts contracting a vertex would
+ *  add, less the number of edges it would remove, plus the number of
+ *  its neighbors already contracted.  Initial ranks are computed in
+ *  parallel.  The hierarchy is a snapshot: later changes to the map are
+ *  not reflected in it.  Queries share working storage, and so must not
+ *  run concurrently.  Only the public interface of the graph package is
+ *  available here, and so the hierarchy keeps its own heaps and search
+ *  tables.
+ *  @author Tina Nguyen
+ */
+class ContractionHierarchy {
+
+    /** A contraction hierarchy of MAP. */
+    ContractionHierarchy(LabeledGraph<Location, Road> map) {
+        int n = map.maxVertex() + 1;
+        _rank = new int[n];
+        _up = new Arcs(n);
+        _down = new Arcs(n);
+        Arcs out = new Arcs(n), in = new Arcs(n);
+        int[] vertices = new int[map.vertexSize()];
+        int k = 0;
+        for (int u : map.vertices()) {
+            vertices[k] = u;
+            k += 1;
+            for (int v : map.successors(u)) {
+                if (u != v) {
+                    double w = map.getLabel(u, v).length();
+                    out.lower(u, v, w, 0);
+                    in.lower(v, u, w, 0);
+                }
+            }
+        }
+        contract(vertices, out, in);
+        _forward = new Table(n);
+        _backward = new Table(n);
+        _forwardHeap = new Queue(n);
+        _backwardHeap = new Queue(n);
+    }
+
+    /** Returns the number of shortcuts added to the map. */
+    int shortcuts() {
+        return _numShortcuts;
+    }
+
+    /** Returns the weight of a shortest path from SOURCE to DEST, or
+     *  infinity if there is none. */
+    double distance(int source, int dest) {
+        int meet = search(source, dest);
+        return meet == 0 ? Double.POSITIVE_INFINITY
+            : _forward.weight(meet) + _backward.weight(meet);
+    }
+
+    /** Returns the vertices along a shortest path from SOURCE to DEST,
+     *  starting with SOURCE and ending with DEST, or an empty list if
+     *  there is no path. */
+    List<Integer> path(int source, int dest) {
+        int meet = search(source, dest);
+        if (meet == 0) {
+            return Collections.emptyList();
+        }
+        ArrayList<Integer> result = new ArrayList<>();
+        ArrayList<Integer> up = new ArrayList<>();
+        for (int v = meet; v != source; v = _forward.link(v)) {
+            up.add(v);
+        }
+        up.add(source);
+        result.add(source);
+        for (int k = up.size() - 1; k > 0; k -= 1) {
+            unpack(up.get(k), up.get(k - 1), result);
+        }
+        for (int v = meet; v != dest; v = _backward.link(v)) {
+            unpack(v, _backward.link(v), result);
+        }
+        return result;
+    }
+
+    /* Preprocessing */
+
+    /** Contract VERTICES, whose edges are initially those in OUT and
+     *  (reversed) IN, recording the ranks and the upward edges. */
+    private void contract(int[] vertices, Arcs out, Arcs in) {
+        int n = _rank.length;
+        double[] initial = new double[n];
+        ThreadLocal<Witness> witnesses =
+            ThreadLocal.withInitial(() -> new Witness(out));
+        IntStream.range(0, vertices.length).parallel().forEach(i -> {
+            int v = vertices[i];
+            initial[v] = priority(v, out, in, witnesses.get());
+        });
+
+        Witness witness = new Witness(out);
+        Queue queue = new Queue(n);
+        for (int v : vertices) {
+            queue.update(v, initial[v]);
+        }
+        int[] contractedNeighbors = new int[n];
+        int rank = 0;
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            double p = priority(v, out, in, witness) + contractedNeighbors[v];
+            if (!queue.isEmpty() && p > queue.priority(queue.peek())) {
+                queue.update(v, p);
+                continue;
+            }
+            rank += 1;
+            _rank[v] = rank;
+            shortcuts(v, out, in, witness, true);
+            for (int j = 0; j < out.size(v); j += 1) {
+                int w = out.target(v, j);
+                _up.lower(v, w, out.weight(v, j), out.middle(v, j));
+                in.remove(w, v);
+            }
+            for (int j = 0; j < in.size(v); j += 1) {
+                int u = in.target(v, j);
+                _down.lower(v, u, in.weight(v, j), in.middle(v, j));
+                out.remove(u, v);
+            }
+            for (int j = 0; j < _up.size(v); j += 1) {
+                int w = _up.target(v, j);
+                contractedNeighbors[w] += 1;
+                queue.update(w, priority(w, out, in, witness)
+                             + contractedNeighbors[w]);
+            }
+            for (int j = 0; j < _down.size(v); j += 1) {
+                int u = _down.target(v, j);
+                if (out.indexOf(v, u) < 0) {
+                    contractedNeighbors[u] += 1;
+                    queue.update(u, priority(u, out, in, witness)
+                                 + contractedNeighbors[u]);
+                }
+            }
+            out.clear(v);
+            in.clear(v);
+        }
+    }
+
+    /** Returns the priority for contracting V next, apart from the
+     *  count of contracted neighbors, given the remaining edges OUT and
+     *  IN, using WITNESS for searches. */
+    private double priority(int v, Arcs out, Arcs in, Witness witness) {
+        return shortcuts(v, out, in, witness, false)
+            - out.size(v) - in.size(v);
+    }
+
+    /** Returns the number of shortcuts needed to contract V from the
+     *  remaining edges OUT and IN, using WITNESS for searches, and adds
+     *  them iff ADD. */
+    private int shortcuts(int v, Arcs out, Arcs in, Witness witness,
+                          boolean add) {
+        int count = 0;
+        for (int i = 0; i < in.size(v); i += 1) {
+            int u = in.target(v, i);
+            double toV = in.weight(v, i);
+            double limit = 0;
+            for (int j = 0; j < out.size(v); j += 1) {
+                limit = Math.max(limit, toV + out.weight(v, j));
+            }
+            witness.search(u, v, limit,
+                           add ? CONTRACT_SETTLED : ESTIMATE_SETTLED);
+            for (int j = 0; j < out.size(v); j += 1) {
+                int w = out.target(v, j);
+                double via = toV + out.weight(v, j);
+                if (w != u && witness.weight(w) > via) {
+                    count += 1;
+                    if (add) {
+                        if (out.lower(u, w, via, v)) {
+                            _numShortcuts += 1;
+                        }
+                        in.lower(w, u, via, v);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /** A search of the uncontracted vertices for paths that make
+     *  shortcuts unnecessary. */
+    private static class Witness {
+        /** A witness searcher using the edges OUT. */
+        Witness(Arcs out) {
+            _out = out;
+            _targets = new int[out.maxVertex() + 1];
+            _table = new Table(out.maxVertex() + 1);
+            _heap = new Queue(out.maxVertex() + 1);
+        }
+
+        /** Find the shortest paths from U that avoid V to the successors
+         *  of V, stopping once they are all settled, or at weight LIMIT,
+         *  or after SETTLED vertices. */
+        void search(int u, int v, double limit, int settled) {
+            _table.begin();
+            _heap.clear();
+            _searches += 1;
+            int remaining = 0;
+            for (int j = 0; j < _out.size(v); j += 1) {
+                int w = _out.target(v, j);
+                if (w != u && _targets[w] != _searches) {
+                    _targets[w] = _searches;
+                    remaining += 1;
+                }
+            }
+            _table.setWeight(u, 0);
+            _heap.update(u, 0);
+            for (; settled > 0 && remaining > 0 && !_heap.isEmpty();
+                 settled -= 1) {
+                int x = _heap.poll();
+                double dx = _table.weight(x);
+                if (dx > limit) {
+                    break;
+                } else if (_targets[x] == _searches) {
+                    remaining -= 1;
+                }
+                for (int j = 0; j < _out.size(x); j += 1) {
+                    int y = _out.target(x, j);
+                    double dy = dx + _out.weight(x, j);
+                    if (y != v && dy < _table.weight(y)) {
+                        _table.setWeight(y, dy);
+                        _heap.update(y, dy);
+                    }
+                }
+            }
+        }
+
+        /** Returns the weight of the best path found to W. */
+        double weight(int w) {
+            return _table.weight(w);
+        }
+
+        /** The remaining edges. */
+        private final Arcs _out;
+        /** _targets[W] == _searches iff W is a target of this search. */
+        private final int[] _targets;
+        /** Number of searches so far. */
+        private int _searches;
+        /** Weights found. */
+        private final Table _table;
+        /** Vertices reached but not settled. */
+        private final Queue _heap;
+    }
+
+    /* Queries */
+
+    /** Search upward from SOURCE and DEST, leaving the weights and links
+     *  of the two searches in _forward and _backward.  Returns the vertex
+     *  where they meet on a shortest path, or 0 if there is none. */
+    private int search(int source, int dest) {
+        if (source <= 0 || source >= _rank.length || _rank[source] == 0
+            || dest <= 0 || dest >= _rank.length || _rank[dest] == 0) {
+            return 0;
+        }
+        _forward.begin();
+        _backward.begin();
+        _forwardHeap.clear();
+        _backwardHeap.clear();
+        _forward.setWeight(source, 0);
+        _forwardHeap.update(source, 0);
+        _backward.setWeight(dest, 0);
+        _backwardHeap.update(dest, 0);
+        double best = Double.POSITIVE_INFINITY;
+        int meet = 0;
+        while (true) {
+            boolean forward = !_forwardHeap.isEmpty()
+                && _forwardHeap.priority(_forwardHeap.peek()) < best;
+            boolean backward = !_backwardHeap.isEmpty()
+                && _backwardHeap.priority(_backwardHeap.peek()) < best;
+            if (forward && (!backward
+                            || _forwardHeap.size() <= _backwardHeap.size())) {
+                int v = settle(_forwardHeap, _forward, _up);
+                double total = _forward.weight(v) + _backward.weight(v);
+                if (total < best) {
+                    best = total;
+                    meet = v;
+                }
+            } else if (backward) {
+                int v = settle(_backwardHeap, _backward, _down);
+                double total = _forward.weight(v) + _backward.weight(v);
+                if (total < best) {
+                    best = total;
+                    meet = v;
+                }
+            } else {
+                return meet;
+            }
+        }
+    }
+
+    /** Settle the next vertex from HEAP, relaxing its edges in ARCS and
+     *  recording the results in TABLE.  Returns the vertex. */
+    private static int settle(Queue heap, Table table, Arcs arcs) {
+        int v = heap.poll();
+        double weight = table.weight(v);
+        for (int j = 0; j < arcs.size(v); j += 1) {
+            int w = arcs.target(v, j);
+            double weight1 = weight + arcs.weight(v, j);
+            if (weight1 < table.weight(w)) {
+                table.setWeight(w, weight1);
+                table.setLink(w, v);
+                heap.update(w, weight1);
+            }
+        }
+        return v;
+    }
+
+    /** Append the original vertices along the edge or shortcut (U, V) to
+     *  PATH, excluding U. */
+    private void unpack(int u, int v, List<Integer> path) {
+        int middle = _rank[u] < _rank[v]
+            ? _up.middle(u, _up.indexOf(u, v))
+            : _down.middle(v, _down.indexOf(v, u));
+        if (middle == 0) {
+            path.add(v);
+        } else {
+            unpack(u, middle, path);
+            unpack(middle, v, path);
+        }
+    }
+
+    /** Weighted edges, each of which may be a shortcut through a middle
+     *  vertex, kept in a list for each vertex. */
+    private static class Arcs {
+        /** Empty lists for vertices 0 .. N-1. */
+        Arcs(int n) {
+            _targets = new int[n][];
+            _weights = new double[n][];
+            _middles = new int[n][];
+            _sizes = new int[n];
+        }
+
+        /** Returns the largest vertex number allowed. */
+        int maxVertex() {
+            return _sizes.length - 1;
+        }
+
+        /** Returns the number of arcs from V. */
+        int size(int v) {
+            return _sizes[v];
+        }
+
+        /** Returns the target of arc K from V. */
+        int target(int v, int k) {
+            return _targets[v][k];
+        }
+
+        /** Returns the weight of arc K from V. */
+        double weight(int v, int k) {
+            return _weights[v][k];
+        }
+
+        /** Returns the middle vertex of arc K from V, or 0 if it is an
+         *  original edge. */
+        int middle(int v, int k) {
+            return _middles[v][k];
+        }
+
+        /** Returns the index of the arc from V to W, or -1 if there is
+         *  none. */
+        int indexOf(int v, int w) {
+            for (int k = 0; k < _sizes[v]; k += 1) {
+                if (_targets[v][k] == w) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        /** Add an arc from V to W with weight WEIGHT through MIDDLE, or
+         *  give the existing arc from V to W that weight and middle if it
+         *  is less than its current weight.  Returns true iff a new arc
+         *  was added. */
+        boolean lower(int v, int w, double weight, int middle) {
+            int k = indexOf(v, w);
+            if (k >= 0) {
+                if (weight < _weights[v][k]) {
+                    _weights[v][k] = weight;
+                    _middles[v][k] = middle;
+                }
+                return false;
+            }
+            int n = _sizes[v];
+            if (_targets[v] == null) {
+                _targets[v] = new int[INITIAL_ARCS];
+                _weights[v] = new double[INITIAL_ARCS];
+                _middles[v] = new int[INITIAL_ARCS];
+            } else if (n == _targets[v].length) {
+                _targets[v] = Arrays.copyOf(_targets[v], 2 * n);
+                _weights[v] = Arrays.copyOf(_weights[v], 2 * n);
+                _middles[v] = Arrays.copyOf(_middles[v], 2 * n);
+            }
+            _targets[v][n] = w;
+            _weights[v][n] = weight;
+            _middles[v][n] = middle;
+            _sizes[v] = n + 1;
+            return true;
+        }
+
+        /** Remove the arc from V to W, if any. */
+        void remove(int v, int w) {
+            int k = indexOf(v, w);
+            if (k >= 0) {
+                int last = _sizes[v] - 1;
+                _targets[v][k] = _targets[v][last];
+                _weights[v][k] = _weights[v][last];
+                _middles[v][k] = _middles[v][last];
+                _sizes[v] = last;
+            }
+        }
+
+        /** Remove all arcs from V and release their storage. */
+        void clear(int v) {
+            _targets[v] = null;
+            _weights[v] = null;
+            _middles[v] = null;
+            _sizes[v] = 0;
+        }
+
+        /** Targets of the arcs from each vertex. */
+        private final int[][] _targets;
+        /** Weights of the arcs from each vertex. */
+        private final double[][] _weights;
+        /** Middle vertices of the arcs from each vertex, or 0. */
+        private final int[][] _middles;
+        /** Number of arcs from each vertex. */
+        private final int[] _sizes;
+    }
+
+    /** A priority queue of vertices, kept as a binary heap that records
+     *  the position of each vertex, so that its priority may be changed
+     *  in place.  Vertices with equal priorities come out in increasing
+     *  order of vertex number. */
+    private static class Queue {
+        /** An empty queue of vertices 0 .. N-1. */
+        Queue(int n) {
+            _vertices = new int[n];
+            _priorities = new double[n];
+            _positions = new int[n];
+        }
+
+        /** Returns true iff I am empty. */
+        boolean isEmpty() {
+            return _size == 0;
+        }
+
+        /** Returns the number of vertices in me. */
+        int size() {
+            return _size;
+        }
+
+        /** Returns my first vertex, which must exist. */
+        int peek() {
+            return _vertices[0];
+        }
+
+        /** Remove and return my first vertex, which must exist. */
+        int poll() {
+            int v = _vertices[0];
+            _positions[v] = 0;
+            _size -= 1;
+            if (_size > 0) {
+                siftDown(0, _vertices[_size], _priorities[_size]);
+            }
+            return v;
+        }
+
+        /** Returns the priority of V, which must be in me. */
+        double priority(int v) {
+            return _priorities[_positions[v] - 1];
+        }
+
+        /** Add V to me with priority P, or give it priority P if it is
+         *  already present. */
+        void update(int v, double p) {
+            int i = _positions[v] - 1;
+            if (i < 0) {
+                i = _size;
+                _size += 1;
+                siftUp(i, v, p);
+            } else if (p < _priorities[i]) {
+                siftUp(i, v, p);
+            } else {
+                siftDown(i, v, p);
+            }
+        }
+
+        /** Remove all my vertices. */
+        void clear() {
+            for (int i = 0; i < _size; i += 1) {
+                _positions[_vertices[i]] = 0;
+            }
+            _size = 0;
+        }
+
+        /** Returns true iff vertex V with priority P comes before vertex
+         *  W with priority Q. */
+        private static boolean before(double p, int v, double q, int w) {
+            return p < q || (p == q && v < w);
+        }
+
+        /** Put vertex V with priority P at position I, and move it toward
+         *  the root as needed. */
+        private void siftUp(int i, int v, double p) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!before(p, v, _priorities[parent], _vertices[parent])) {
+                    break;
+                }
+                place(i, _vertices[parent], _priorities[parent]);
+                i = parent;
+            }
+            place(i, v, p);
+        }
+
+        /** Put vertex V with priority P at position I, and move it toward
+         *  the leaves as needed. */
+        private void siftDown(int i, int v, double p) {
+            while (2 * i + 1 < _size) {
+                int least = 2 * i + 1;
+                if (least + 1 < _size
+                    && before(_priorities[least + 1], _vertices[least + 1],
+                              _priorities[least], _vertices[least])) {
+                    least += 1;
+                }
+                if (!before(_priorities[least], _vertices[least], p, v)) {
+                    break;
+                }
+                place(i, _vertices[least], _priorities[least]);
+                i = least;
+            }
+            place(i, v, p);
+        }
+
+        /** Store vertex V with priority P at position I. */
+        private void place(int i, int v, double p) {
+            _vertices[i] = v;
+            _priorities[i] = p;
+            _positions[v] = i + 1;
+        }
+
+        /** The vertices, in heap order. */
+        private final int[] _vertices;
+        /** _priorities[I] is the priority of _vertices[I]. */
+        private final double[] _priorities;
+        /** _positions[V] is 1 + the position of V in _vertices, or 0 if
+         *  V is not present. */
+        private final int[] _positions;
+        /** Number of vertices present. */
+        private int _size;
+    }
+
+    /** The tentative weights of vertices in a search, each with a link to
+     *  a neighbor on its best path.  Entries are stamped with the search
+     *  that set them, and those with older stamps read as infinitely
+     *  heavy with no link, so that starting a search takes constant
+     *  time. */
+    private static class Table {
+        /** A table for vertices 0 .. N-1. */
+        Table(int n) {
+            _weights = new double[n];
+            _links = new int[n];
+            _stamps = new int[n];
+        }
+
+        /** Discard the results of the previous search. */
+        void begin() {
+            _epoch += 1;
+            if (_epoch == 0) {
+                Arrays.fill(_stamps, 0);
+                _epoch = 1;
+            }
+        }
+
+        /** Returns the weight of V, or infinity if it has not been set. */
+        double weight(int v) {
+            return _stamps[v] == _epoch ? _weights[v]
+                : Double.POSITIVE_INFINITY;
+        }
+
+        /** Returns the link of V, or 0 if it has not been set. */
+        int link(int v) {
+            return _stamps[v] == _epoch ? _links[v] : 0;
+        }
+
+        /** Set the weight of V to W. */
+        void setWeight(int v, double w) {
+            touch(v);
+            _weights[v] = w;
+        }
+
+        /** Set the link of V to U. */
+        void setLink(int v, int u) {
+            touch(v);
+            _links[v] = u;
+        }
+
+        /** Mark V as set in the current search, with infinite weight and
+         *  no link, unless it already is. */
+        private void touch(int v) {
+            if (_stamps[v] != _epoch) {
+                _stamps[v] = _epoch;
+                _weights[v] = Double.POSITIVE_INFINITY;
+                _links[v] = 0;
+            }
+        }
+
+        /** Vertex weights. */
+        private final double[] _weights;
+        /** Vertex links. */
+        private final int[] _links;
+        /** _stamps[V] == _epoch iff V's entries are from this search. */
+        private final int[] _stamps;
+        /** The number of the current search. */
+        private int _epoch;
+    }
+
+    /** Initial capacity of an arc list. */
+    private static final int INITIAL_ARCS = 4;
+    /** Greatest number of vertices settled by a witness search when
+     *  contracting a vertex. */
+    private static final int CONTRACT_SETTLED = 500;
+    /** Greatest number of vertices settled by a witness search when
+     *  estimating the shortcuts contracting a vertex would need. */
+    private static final int ESTIMATE_SETTLED = 20;
+
+    /** The contraction rank of each vertex (from 1), or 0 for
+     *  non-vertices. */
+    private final int[] _rank;
+    /** For each vertex, its edges to higher-ranked vertices. */
+    private final Arcs _up;
+    /** For each vertex, its edges from higher-ranked vertices, reversed. */
+    private final Arcs _down;
+    /** Number of shortcuts added. */
+    private int _numShortcuts;
+    /** Weights and predecessors from the source of a query. */
+    private final Table _forward;
+    /** Weights and successors toward the destination of a query. */
+    private final Table _backward;
+    /** Vertices reached but not settled from the source. */
+    private final Queue _forwardHeap;
+    /** Vertices reached but not settled from the destination. */
+    private final Queue _backwardHeap;
+
+}
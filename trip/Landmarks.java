@@ -0,0 +1,318 @@
+package trip;
+
+import graph.LabeledGraph;
+import graph.SimpleShortestPaths;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/** Lower bounds on the distances between the locations of a map, derived
+ *  from the distances to a few landmark locations by the triangle
+ *  inequality (the ALT method).  Every road of a map runs both ways
+ *  with the same length (see Trip.addRoad), so that for any landmark L,
+ *  the distance from U to V is at least |d(L, V) - d(L, U)|.  The bound
+ *  given by estimate is the largest of these over all landmarks, and is
+ *  consistent, so that it serves as the estimatedDistance of an A*
+ *  search in place of, or together with, a geometric one.
+ *
+ *  Landmarks are chosen by one of two methods.  In farthest selection,
+ *  each is the location farthest from those already chosen, so that
+ *  they end up spread around the edges of the map, where they give the
+ *  best bounds.  In avoid selection (Goldberg and Werneck), each is
+ *  found from a tree of shortest paths from a random root: every
+ *  location is weighted by how far its distance from the root exceeds
+ *  the bound given by the landmarks already chosen, the subtree with
+ *  the greatest total weight and no landmark is found, and the new
+ *  landmark is the leaf reached by descending from it into the heaviest
+ *  child each time.  It thus goes where the bounds are weakest.  Both
+ *  methods first reach any part of the map that no landmark reaches.
+ *  There is one table per landmark, since with roads running both ways
+ *  the distances to it are the distances from it.  The tables are
+ *  computed one after another rather than in parallel, because neither
+ *  method knows the next landmark until the tables of those before it
+ *  are complete: farthest selection reads their distances, and avoid
+ *  selection their bounds.  The tables may be written to a stream and
+ *  read back, which checks that they still fit the map.  They are a
+ *  snapshot: later changes to the map are not reflected in them.
+ *  @author Tina Nguyen
+ */
+class Landmarks {
+
+    /** Tables for up to K landmarks in MAP, chosen by avoid selection
+     *  iff AVOID, and otherwise by farthest selection.  There are fewer
+     *  than K landmarks only if MAP has fewer than K locations. */
+    Landmarks(LabeledGraph<Location, Road> map, int k, boolean avoid) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative landmark count");
+        }
+        k = Math.min(k, map.vertexSize());
+        int n = map.maxVertex() + 1;
+        _fingerprint = fingerprint(map);
+        _tableSize = n;
+        _landmarks = new int[k];
+        _from = new double[k][];
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, INFINITY);
+        int[] vertices = new int[map.vertexSize()];
+        int j = 0;
+        for (int v : map.vertices()) {
+            vertices[j] = v;
+            j += 1;
+        }
+        Random random = new Random(SEED);
+        double[] start = k == 0 || avoid ? nearest
+            : distances(map, vertices[0]);
+        for (int i = 0; i < k; i += 1) {
+            int landmark = farthest(map, i == 0 ? start : nearest);
+            if (avoid && (i == 0 || nearest[landmark] < INFINITY)) {
+                int leaf = avoid(map, i,
+                                 vertices[random.nextInt(vertices.length)]);
+                if (leaf != 0) {
+                    landmark = leaf;
+                }
+            }
+            _landmarks[i] = landmark;
+            _from[i] = distances(map, landmark);
+            for (int v = 1; v < n; v += 1) {
+                nearest[v] = Math.min(nearest[v], _from[i][v]);
+            }
+        }
+    }
+
+    /** Tables of length N with the given FINGERPRINT, LANDMARKS, and
+     *  distances FROM them. */
+    private Landmarks(int n, long fingerprint, int[] landmarks,
+                      double[][] from) {
+        _tableSize = n;
+        _fingerprint = fingerprint;
+        _landmarks = landmarks;
+        _from = from;
+    }
+
+    /** Returns tables previously written by write to IN, for MAP.  Throws
+     *  IOException if IN cannot be read or does not hold landmark tables
+     *  of the size that MAP needs, and IllegalArgumentException if they
+     *  were computed for a different map.  Sizes and landmarks are
+     *  checked before anything is allocated for them. */
+    static Landmarks read(InputStream in, LabeledGraph<Location, Road> map)
+        throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a landmark table");
+        }
+        long fingerprint = data.readLong();
+        int n = data.readInt(), k = data.readInt();
+        if (n != map.maxVertex() + 1) {
+            throw new IOException("landmark tables have the wrong length");
+        }
+        if (k < 0 || k > map.vertexSize()) {
+            throw new IOException("bad number of landmarks");
+        }
+        if (fingerprint != fingerprint(map)) {
+            throw new IllegalArgumentException(
+                "landmark tables are for a different map");
+        }
+        int[] landmarks = new int[k];
+        for (int i = 0; i < k; i += 1) {
+            landmarks[i] = data.readInt();
+            if (!map.contains(landmarks[i])) {
+                throw new IOException("bad landmark");
+            }
+        }
+        double[][] from = new double[k][n];
+        for (double[] row : from) {
+            for (int v = 0; v < n; v += 1) {
+                row[v] = data.readDouble();
+            }
+        }
+        return new Landmarks(n, fingerprint, landmarks, from);
+    }
+
+    /** Write my tables to OUT, for reading back by read. */
+    void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeLong(_fingerprint);
+        data.writeInt(_tableSize);
+        data.writeInt(_landmarks.length);
+        for (int landmark : _landmarks) {
+            data.writeInt(landmark);
+        }
+        for (double[] row : _from) {
+            for (double d : row) {
+                data.writeDouble(d);
+            }
+        }
+        data.flush();
+    }
+
+    /** Returns the number of landmarks. */
+    int size() {
+        return _landmarks.length;
+    }
+
+    /** Returns landmark #I, numbering from 0. */
+    int landmark(int i) {
+        return _landmarks[i];
+    }
+
+    /** Returns a lower bound on the distance from U to V, both of which
+     *  must be locations in my map. */
+    double estimate(int u, int v) {
+        return bound(_from.length, u, v);
+    }
+
+    /** Returns the lower bound on the distance from U to V given by the
+     *  first COUNT landmarks. */
+    private double bound(int count, int u, int v) {
+        double best = 0;
+        for (int i = 0; i < count; i += 1) {
+            double[] from = _from[i];
+            if (from[u] != INFINITY && from[v] != INFINITY) {
+                best = Math.max(best, Math.abs(from[v] - from[u]));
+            }
+        }
+        return best;
+    }
+
+    /** Returns the landmark chosen by avoid selection in MAP, given the
+     *  first COUNT landmarks, from a tree of shortest paths from ROOT, or
+     *  0 if every subtree without a landmark has weight 0. */
+    private int avoid(LabeledGraph<Location, Road> map, int count,
+                      int root) {
+        SimpleShortestPaths tree = search(map, root);
+        int n = map.maxVertex() + 1;
+        double[] size = new double[n];
+        boolean[] covered = new boolean[n];
+        int[] children = new int[n], heaviest = new int[n];
+        int[] leaves = new int[n];
+        int numLeaves = 0;
+        for (int i = 0; i < count; i += 1) {
+            covered[_landmarks[i]] = true;
+        }
+        for (int v : map.vertices()) {
+            if (tree.getWeight(v) != INFINITY) {
+                children[tree.getPredecessor(v)] += 1;
+            }
+        }
+        for (int v : map.vertices()) {
+            if (tree.getWeight(v) != INFINITY && children[v] == 0) {
+                leaves[numLeaves] = v;
+                numLeaves += 1;
+            }
+        }
+        int best = 0;
+        while (numLeaves > 0) {
+            numLeaves -= 1;
+            int v = leaves[numLeaves];
+            size[v] += tree.getWeight(v) - bound(count, root, v);
+            if (covered[v]) {
+                size[v] = 0;
+            }
+            if (best == 0 || size[v] > size[best]) {
+                best = v;
+            }
+            int p = tree.getPredecessor(v);
+            if (p != 0) {
+                size[p] += size[v];
+                covered[p] |= covered[v];
+                if (heaviest[p] == 0 || size[v] > size[heaviest[p]]) {
+                    heaviest[p] = v;
+                }
+                children[p] -= 1;
+                if (children[p] == 0) {
+                    leaves[numLeaves] = p;
+                    numLeaves += 1;
+                }
+            }
+        }
+        if (best == 0 || size[best] <= 0) {
+            return 0;
+        }
+        while (heaviest[best] != 0) {
+            best = heaviest[best];
+        }
+        return best;
+    }
+
+    /** Returns the location of MAP with the greatest entry in DIST,
+     *  unreached (infinite) locations first, ties going to the smallest
+     *  vertex. */
+    private static int farthest(LabeledGraph<Location, Road> map,
+                                double[] dist) {
+        int best = 0;
+        for (int v : map.vertices()) {
+            if (best == 0 || dist[v] > dist[best]) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /** Returns the distances in MAP from SOURCE to each location, indexed
+     *  by vertex.  Unreachable locations are at infinite distance. */
+    private static double[] distances(LabeledGraph<Location, Road> map,
+                                      int source) {
+        SimpleShortestPaths paths = search(map, source);
+        double[] dist = new double[map.maxVertex() + 1];
+        for (int v = 0; v < dist.length; v += 1) {
+            dist[v] = paths.getWeight(v);
+        }
+        return dist;
+    }
+
+    /** Returns the shortest paths in MAP from SOURCE to all locations,
+     *  after finding them. */
+    private static SimpleShortestPaths search(LabeledGraph<Location, Road>
+                                              map, int source) {
+        SimpleShortestPaths paths = new SimpleShortestPaths(map, source) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return map.getLabel(u, v).length();
+            }
+        };
+        paths.setPaths();
+        return paths;
+    }
+
+    /** Returns a hash of the locations and roads of MAP and the lengths
+     *  of the roads. */
+    private static long fingerprint(LabeledGraph<Location, Road> map) {
+        long h = 0;
+        for (int u : map.vertices()) {
+            h = h * FINGERPRINT_FACTOR + u;
+            for (int v : map.successors(u)) {
+                h = h * FINGERPRINT_FACTOR + v;
+                h = h * FINGERPRINT_FACTOR
+                    + Double.doubleToLongBits(map.getLabel(u, v).length());
+            }
+        }
+        return h;
+    }
+
+    /** First word of a file of landmark tables. */
+    private static final int MAGIC = 0x414c5432;
+    /** Seed of the random roots of avoid selection, fixed so that the
+     *  same map always gets the same landmarks. */
+    private static final long SEED = 0x5eed;
+    /** Distance to unreachable locations. */
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+    /** Multiplier used in computing fingerprints. */
+    private static final long FINGERPRINT_FACTOR = 0x100000001b3L;
+
+    /** Length of each table: one more than the largest vertex. */
+    private final int _tableSize;
+    /** Hash of the map the tables were computed for. */
+    private final long _fingerprint;
+    /** The landmarks. */
+    private final int[] _landmarks;
+    /** _from[I][V] is the distance from landmark I to V, which is also
+     *  the distance from V to landmark I. */
+    private final double[][] _from;
+
+}
@@ -19,17 +19,21 @@ public final class Main {
 
     /** Entry point for the CS61B trip program.  RAWARGS may contain options
      *  and targets:
-     *      [ -m MAP ] [ -o OUT ] [ REQUEST ]
+     *      [ -m MAP ] [ -o OUT ] [ -c ] [ -l LANDMARKS ] [ REQUEST ]
      *  where MAP (default Map) contains the map data, OUT (default standard
      *  output) takes the result, and REQUEST (default standard input) contains
-     *  the locations along the requested trip.
+     *  the locations along the requested trip.  With -c, the map is first
+     *  preprocessed into a contraction hierarchy, which pays off for trips
+     *  with many legs on large maps.  With -l, searches are guided by
+     *  distances to and from landmark locations, which are kept in the file
+     *  LANDMARKS and recomputed only when the map changes.
      */
     public static void main(String... rawArgs) {
         String mapFileName;
         String outFileName;
         List<String> targets;
         CommandArgs args =
-            new CommandArgs("-m={0,1} -o={0,1} --={2,}", rawArgs);
+            new CommandArgs("-m={0,1} -o={0,1} -c -l={0,1} --={2,}", rawArgs);
 
         if (!args.ok()) {
             usage();
@@ -42,9 +46,13 @@ public final class Main {
         setFiles(outFileName);
 
         Trip trip = new Trip();
+        trip.setUseHierarchy(args.contains("-c"));
 
         try {
             trip.readMap(mapFileName);
+            if (args.contains("-l")) {
+                trip.useLandmarks(args.getFirst("-l"));
+            }
             trip.makeTrip(targets);
         } catch (IllegalArgumentException excp) {
             System.err.printf("trip: %s%n", excp.getMessage());
@@ -79,7 +87,7 @@ public final class Main {
     /** Print a brief usage message and exit program abnormally. */
     private static void usage() {
         System.err.printf("Usage: java trip.Main [ -m MAPFILE ] [ -o OUTFILE ]"
-                          + " [ REQUESTFILE ]%n");
+                          + " [ -c ] [ -l LANDMARKS ] [ REQUESTFILE ]%n");
         System.exit(1);
     }
 
@@ -0,0 +1,264 @@
+package trip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/** Reads the whitespace-separated tokens of a map file, in place of a
+ *  java.util.Scanner, which is too slow for large maps.  Bytes are read
+ *  in large blocks, tokens are found and numbers parsed directly from
+ *  the bytes, and tokens that recur, such as entry types and road
+ *  names, may be interned rather than copied each time.  Errors are
+ *  reported with the same exceptions as Scanner: NoSuchElementException
+ *  at the end of the input and InputMismatchException for numbers that
+ *  are malformed.  The input must be in an encoding, such as UTF-8, in
+ *  which whitespace characters are single bytes.
+ *  @author Tina Nguyen
+ */
+class MapReader implements Closeable {
+
+    /** A reader of the tokens in IN. */
+    MapReader(InputStream in) {
+        _in = in;
+        _buf = new byte[BUFFER_SIZE];
+        _internKeys = new byte[INITIAL_INTERNED][];
+        _internValues = new String[INITIAL_INTERNED];
+    }
+
+    /** Returns true iff there is another token. */
+    boolean hasNext() throws IOException {
+        while (true) {
+            while (_pos < _limit) {
+                if (!isWhitespace(_buf[_pos])) {
+                    return true;
+                }
+                _pos += 1;
+            }
+            _pos = _limit = 0;
+            if (!fill()) {
+                return false;
+            }
+        }
+    }
+
+    /** Returns the next token. */
+    String next() throws IOException {
+        int len = token();
+        return new String(_buf, _pos - len, len, CHARSET);
+    }
+
+    /** Returns the next token, as the same String as every earlier equal
+     *  token read by nextInterned. */
+    String nextInterned() throws IOException {
+        int len = token();
+        return intern(_pos - len, len);
+    }
+
+    /** Returns the next token as a double.  Throws InputMismatchException
+     *  if it is not a number in the decimal forms that Scanner accepts:
+     *  Double.parseDouble's, without type suffixes or hexadecimal. */
+    double nextDouble() throws IOException {
+        int len = token();
+        int start = _pos - len;
+        double value = parseDecimal(start, _pos);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        String token = new String(_buf, start, len, CHARSET);
+        char last = token.charAt(len - 1);
+        if (last == 'd' || last == 'D' || last == 'f' || last == 'F'
+            || token.indexOf('x') >= 0 || token.indexOf('X') >= 0) {
+            throw new InputMismatchException(token);
+        }
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException excp) {
+            throw new InputMismatchException(token);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _in.close();
+    }
+
+    /** Move past the next token, which must exist, and return its
+     *  length.  The token ends at _pos in _buf. */
+    private int token() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int start = _pos;
+        while (true) {
+            while (_pos < _limit) {
+                if (isWhitespace(_buf[_pos])) {
+                    return _pos - start;
+                }
+                _pos += 1;
+            }
+            int len = _pos - start;
+            System.arraycopy(_buf, start, _buf, 0, len);
+            _pos = _limit = len;
+            start = 0;
+            if (len == _buf.length) {
+                _buf = Arrays.copyOf(_buf, 2 * len);
+            }
+            if (!fill()) {
+                return len;
+            }
+        }
+    }
+
+    /** Read more input into _buf after _limit, returning false if there
+     *  is none. */
+    private boolean fill() throws IOException {
+        int n = _in.read(_buf, _limit, _buf.length - _limit);
+        if (n <= 0) {
+            return false;
+        }
+        _limit += n;
+        return true;
+    }
+
+    /** Returns the value of the decimal number in _buf[START .. END-1],
+     *  an optional sign, digits, and an optional point, or NaN if it has
+     *  another form or is too precise to convert exactly here.  Up to 15
+     *  significant digits and 22 decimal places, the integer mantissa and
+     *  the power of 10 are both exact doubles, and so their quotient is
+     *  the correctly rounded value, as given by Double.parseDouble. */
+    private double parseDecimal(int start, int end) {
+        int i = start;
+        boolean negative = _buf[i] == '-';
+        if (negative || _buf[i] == '+') {
+            i += 1;
+        }
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean point = false, any = false;
+        for (; i < end; i += 1) {
+            int c = _buf[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits += 1;
+                }
+                if (point) {
+                    scale += 1;
+                }
+                any = true;
+                if (digits > MAX_DIGITS || scale >= POWERS_OF_10.length) {
+                    return Double.NaN;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!any) {
+            return Double.NaN;
+        }
+        double value = mantissa / POWERS_OF_10[scale];
+        return negative ? -value : value;
+    }
+
+    /** Returns the String for the token _buf[START .. START+LEN-1],
+     *  adding it to the interned tokens if it is new. */
+    private String intern(int start, int len) {
+        int mask = _internKeys.length - 1;
+        int k = hash(_buf, start, start + len) & mask;
+        while (_internKeys[k] != null) {
+            byte[] key = _internKeys[k];
+            if (key.length == len
+                && Arrays.equals(key, 0, len, _buf, start, start + len)) {
+                return _internValues[k];
+            }
+            k = (k + 1) & mask;
+        }
+        String value = new String(_buf, start, len, CHARSET);
+        _internKeys[k] = Arrays.copyOfRange(_buf, start, start + len);
+        _internValues[k] = value;
+        _interned += 1;
+        if (2 * _interned > _internKeys.length) {
+            rehash();
+        }
+        return value;
+    }
+
+    /** Double the size of the table of interned tokens. */
+    private void rehash() {
+        byte[][] keys = _internKeys;
+        String[] values = _internValues;
+        _internKeys = new byte[2 * keys.length][];
+        _internValues = new String[2 * keys.length];
+        int mask = _internKeys.length - 1;
+        for (int i = 0; i < keys.length; i += 1) {
+            if (keys[i] != null) {
+                int k = hash(keys[i], 0, keys[i].length) & mask;
+                while (_internKeys[k] != null) {
+                    k = (k + 1) & mask;
+                }
+                _internKeys[k] = keys[i];
+                _internValues[k] = values[i];
+            }
+        }
+    }
+
+    /** Returns a hash of the bytes BYTES[START .. END-1]. */
+    private static int hash(byte[] bytes, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i += 1) {
+            h = h * HASH_FACTOR + bytes[i];
+        }
+        return h ^ (h >>> HASH_SHIFT);
+    }
+
+    /** Returns true iff B is a whitespace character, as for
+     *  Character.isWhitespace. */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r')
+            || (b >= FIRST_SEPARATOR && b <= LAST_SEPARATOR);
+    }
+
+    /** Encoding of map files, as assumed by FileReader. */
+    private static final Charset CHARSET = Charset.defaultCharset();
+    /** Size of the blocks read. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Initial size of the table of interned tokens (a power of 2). */
+    private static final int INITIAL_INTERNED = 64;
+    /** Multiplier used in hashing tokens. */
+    private static final int HASH_FACTOR = 31;
+    /** Shift that folds the high bits of hashes into the low ones. */
+    private static final int HASH_SHIFT = 16;
+    /** Most significant digits converted exactly by parseDecimal. */
+    private static final int MAX_DIGITS = 15;
+    /** The control characters from FIRST_SEPARATOR to LAST_SEPARATOR are
+     *  the file, group, record, and unit separators, which Java counts
+     *  as whitespace. */
+    private static final byte FIRST_SEPARATOR = 0x1c, LAST_SEPARATOR = 0x1f;
+    /** The powers of 10 that are exact doubles. */
+    private static final double[] POWERS_OF_10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** The input. */
+    private final InputStream _in;
+    /** Input read but not yet consumed is _buf[_pos .. _limit-1]. */
+    private byte[] _buf;
+    /** Position of the next unconsumed byte in _buf. */
+    private int _pos;
+    /** End of the input in _buf. */
+    private int _limit;
+    /** Interned tokens, as bytes, in an open-addressed hash table. */
+    private byte[][] _internKeys;
+    /** _internValues[K] is the String for _internKeys[K]. */
+    private String[] _internValues;
+    /** Number of interned tokens. */
+    private int _interned;
+
+}
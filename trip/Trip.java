@@ -4,14 +4,19 @@ import graph.DirectedGraph;
 import graph.LabeledGraph;
 import graph.SimpleShortestPaths;
 
-import java.io.FileReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
 import java.util.Iterator;
 
 import static trip.Main.error;
@@ -23,21 +28,24 @@ import static trip.Main.error;
  */
 class Trip {
 
-    /** Read map file named NAME into out map graph. */
+    /** Read map file named NAME as our map graph, replacing any map read
+     *  before. */
     void readMap(String name) {
-        int n;
-        n = 0;
-        try {
-            Scanner inp = new Scanner(new FileReader(name));
+        int n = 0;
+        RoadMap map = new RoadMap();
+        _sites = new HashMap<>();
+        try (MapReader inp = new MapReader(new FileInputStream(name))) {
             while (inp.hasNext()) {
                 n += 1;
-                switch (inp.next()) {
+                switch (inp.nextInterned()) {
                 case "L":
-                    addLocation(inp.next(), inp.nextDouble(), inp.nextDouble());
+                    addLocation(map, inp.next(), inp.nextDouble(),
+                                inp.nextDouble());
                     break;
                 case "R":
-                    addRoad(inp.next(), inp.next(), inp.nextDouble(),
-                            Direction.parse(inp.next()), inp.next());
+                    addRoad(map, inp.next(), inp.nextInterned(),
+                            inp.nextDouble(),
+                            Direction.parse(inp.nextInterned()), inp.next());
                     break;
                 default:
                     error("map entry #%d: unknown type", n);
@@ -51,6 +59,36 @@ class Trip {
         } catch (NoSuchElementException excp) {
             error("entry incomplete at end of file");
         }
+        _map = map;
+        _hierarchy = null;
+        _landmarks = null;
+    }
+
+    /** Find routes with a contraction hierarchy of the map, built on the
+     *  first call of makeTrip, iff USE. */
+    void setUseHierarchy(boolean use) {
+        _useHierarchy = use;
+    }
+
+    /** Guide searches for routes with landmark distance tables for the
+     *  map, kept in the file named NAME: read from it if it holds tables
+     *  for the map as read by readMap, and otherwise computed and written
+     *  to it.  If they cannot be written, warn and use them anyway. */
+    void useLandmarks(String name) {
+        try (InputStream inp =
+             new BufferedInputStream(new FileInputStream(name))) {
+            _landmarks = Landmarks.read(inp, _map);
+            return;
+        } catch (IOException | IllegalArgumentException excp) {
+            _landmarks = new Landmarks(_map, LANDMARKS, AVOID_LANDMARKS);
+        }
+        try (OutputStream out =
+             new BufferedOutputStream(new FileOutputStream(name))) {
+            _landmarks.write(out);
+        } catch (IOException excp) {
+            System.err.printf("trip: warning: could not write landmarks"
+                              + " to %s: %s%n", name, excp.getMessage());
+        }
     }
 
     /** Produce a report on the standard output of a shortest journey from
@@ -73,9 +111,17 @@ class Trip {
             } else if (to == null) {
                 error("No location named %s", dests.get(i));
             }
-            TripPlan plan = new TripPlan(from, to);
-            plan.setPaths();
-            List<Integer> segment = plan.pathTo(to);
+            List<Integer> segment;
+            if (_useHierarchy) {
+                if (_hierarchy == null) {
+                    _hierarchy = new ContractionHierarchy(_map);
+                }
+                segment = _hierarchy.path(from, to);
+            } else {
+                TripPlan plan = new TripPlan(from, to);
+                plan.setPaths();
+                segment = plan.pathTo(to);
+            }
             step = reportSegment(step, from, segment);
         }
     }
@@ -133,21 +179,28 @@ class Trip {
         return seq;
     }
 
-    /** Add a new location named NAME at (X, Y). */
-    private void addLocation(String name, double x, double y) {
+    /** Add a new location named NAME at (X, Y) to MAP. */
+    private void addLocation(RoadMap map, String name, double x, double y) {
         if (_sites.containsKey(name)) {
             error("multiple entries for %s", name);
         }
-        int v = _map.add(new Location(name, x, y));
+        int v = map.add(new Location(name, x, y));
         _sites.put(name, v);
+        if (v >= _xs.length) {
+            int size = Math.max(v + 1, 2 * _xs.length);
+            _xs = Arrays.copyOf(_xs, size);
+            _ys = Arrays.copyOf(_ys, size);
+        }
+        _xs[v] = x;
+        _ys[v] = y;
     }
 
     /** Add a stretch of road named NAME from the Location named FROM
      *  to the location named TO, running in direction DIR, and
-     *  LENGTH miles long.  Add a reverse segment going back from TO
-     *  to FROM. */
-    private void addRoad(String from, String name, double length,
-                         Direction dir, String to) {
+     *  LENGTH miles long, to MAP.  Add a reverse segment going back
+     *  from TO to FROM. */
+    private void addRoad(RoadMap map, String from, String name,
+                         double length, Direction dir, String to) {
         Integer v0 = _sites.get(from),
             v1 = _sites.get(to);
 
@@ -157,14 +210,42 @@ class Trip {
             error("location %s not defined", to);
         }
 
-        _map.add(v0, v1, new Road(name, dir, length));
-        _map.add(v1, v0, new Road(name, dir.reverse(), length));
+        map.add(v0, v1, new Road(name, dir, length));
+        map.add(v1, v0, new Road(name, dir.reverse(), length));
     }
 
+    /** Initial capacity of the tables indexed by vertex. */
+    private static final int INITIAL_LOCATIONS = 16;
+    /** Number of landmarks used by useLandmarks. */
+    private static final int LANDMARKS = 16;
+    /** True iff useLandmarks chooses landmarks by avoid selection rather
+     *  than farthest selection.  On our generated maps, the two give
+     *  bounds of about the same quality. */
+    private static final boolean AVOID_LANDMARKS = false;
+
     /** Represents the network of Locations and Roads. */
     private RoadMap _map = new RoadMap();
     /** Mapping of Location names to corresponding map vertices. */
     private HashMap<String, Integer> _sites = new HashMap<>();
+    /** _xs[V] and _ys[V] are the coordinates of the Location at vertex
+     *  V, kept apart from the Locations so that the searches read them
+     *  from flat arrays. */
+    private double[] _xs = new double[INITIAL_LOCATIONS],
+        _ys = new double[INITIAL_LOCATIONS];
+    /** _bounds[V] is the estimated distance from V to the destination
+     *  of the search numbered _boundSearches[V], computed once per
+     *  search. */
+    private double[] _bounds = new double[0];
+    /** The search for which each entry of _bounds was computed. */
+    private int[] _boundSearches = new int[0];
+    /** Number of the latest search, starting from 1. */
+    private int _searches;
+    /** True iff routes are found with _hierarchy. */
+    private boolean _useHierarchy;
+    /** Contraction hierarchy of _map, once built. */
+    private ContractionHierarchy _hierarchy;
+    /** Landmark tables guiding searches of _map, or null. */
+    private Landmarks _landmarks;
 
     /** A labeled directed graph of Locations whose edges are labeled by
      *  Roads. */
@@ -180,7 +261,20 @@ class Trip {
         /** A plan for travel from START to DEST according to _map. */
         TripPlan(int start, int dest) {
             super(_map, start, dest);
-            _finalLocation = _map.getLabel(dest);
+            _destX = _xs[dest];
+            _destY = _ys[dest];
+            int n = _map.maxVertex() + 1;
+            if (_bounds.length < n) {
+                _bounds = new double[n];
+                _boundSearches = new int[n];
+                _searches = 0;
+            }
+            _searches += 1;
+            if (_searches == 0) {
+                Arrays.fill(_boundSearches, 0);
+                _searches = 1;
+            }
+            _search = _searches;
         }
 
         @Override
@@ -188,14 +282,28 @@ class Trip {
             return _map.getLabel(u, v).length();
         }
 
+        /** Returns the straight-line distance from V to the destination,
+         *  or the landmark bound if that is greater, computing it only on
+         *  the first request in this search. */
         @Override
         protected double estimatedDistance(int v) {
-            Location curr = _map.getLabel(v);
-            return curr.dist(_finalLocation);
+            if (_boundSearches[v] != _search) {
+                double dx = _xs[v] - _destX, dy = _ys[v] - _destY;
+                double dist = Math.sqrt(dx * dx + dy * dy);
+                if (_landmarks != null) {
+                    dist = Math.max(dist, _landmarks.estimate(v, getDest()));
+                }
+                _bounds[v] = dist;
+                _boundSearches[v] = _search;
+            }
+            return _bounds[v];
         }
 
-        /** Location of the destination. */
-        private final Location _finalLocation;
+        /** Coordinates of the destination. */
+        private final double _destX, _destY;
+        /** Number of this search, which marks the entries of _bounds
+         *  computed for it. */
+        private final int _search;
 
     }
 
@@ -5,6 +5,20 @@ package trip;
  * may not be part of your trip package per se (that is, it must be
  * possible to remove them and still have your package work). */
 
+import graph.DirectedGraph;
+import graph.LabeledGraph;
+import graph.SimpleShortestPaths;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import org.junit.Test;
 import ucb.junit.textui;
 import static org.junit.Assert.*;
@@ -21,4 +35,212 @@ public class UnitTest {
     public void dummyTest() {
     }
 
+    /** Returns a map of N locations joined by about M roads of random
+     *  whole-number lengths drawn from RAND.  Each road runs both ways,
+     *  as in the maps read by Trip, iff TWOWAY. */
+    private static LabeledGraph<Location, Road> randomMap(int n, int m,
+                                                          Random rand,
+                                                          boolean twoWay) {
+        LabeledGraph<Location, Road> map =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int v = 0; v < n; v += 1) {
+            map.add(new Location("L" + v, 0, 0));
+        }
+        for (int e = 0; e < m; e += 1) {
+            int u = 1 + rand.nextInt(n), v = 1 + rand.nextInt(n),
+                length = rand.nextInt(20);
+            map.add(u, v, new Road("R" + e, Direction.NS, length));
+            if (twoWay) {
+                map.add(v, u, new Road("R" + e, Direction.SN, length));
+            }
+        }
+        return map;
+    }
+
+    /** Returns the distances from SOURCE in MAP, computed by the
+     *  Bellman-Ford algorithm. */
+    private static double[] distances(LabeledGraph<Location, Road> map,
+                                      int source) {
+        double[] dist = new double[map.maxVertex() + 1];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0;
+        for (int i = 0; i < map.vertexSize(); i += 1) {
+            for (int[] e : map.edges()) {
+                dist[e[1]] = Math.min(dist[e[1]], dist[e[0]]
+                                      + map.getLabel(e[0], e[1]).length());
+            }
+        }
+        return dist;
+    }
+
+    /** Returns the total length of PATH, after checking that it runs from
+     *  SOURCE to DEST along roads of MAP. */
+    private static double pathLength(LabeledGraph<Location, Road> map,
+                                     List<Integer> path,
+                                     int source, int dest) {
+        assertEquals(source, (int) path.get(0));
+        assertEquals(dest, (int) path.get(path.size() - 1));
+        double total = 0;
+        for (int k = 1; k < path.size(); k += 1) {
+            assertTrue(map.contains(path.get(k - 1), path.get(k)));
+            total += map.getLabel(path.get(k - 1), path.get(k)).length();
+        }
+        return total;
+    }
+
+    @Test
+    public void testContractionHierarchy() {
+        Random rand = new Random(41);
+        for (int trial = 0; trial < 20; trial += 1) {
+            int n = 2 + rand.nextInt(80);
+            LabeledGraph<Location, Road> map =
+                randomMap(n, 3 * n, rand, false);
+            ContractionHierarchy ch = new ContractionHierarchy(map);
+            for (int query = 0; query < 10; query += 1) {
+                int source = 1 + rand.nextInt(n), dest = 1 + rand.nextInt(n);
+                double expected = distances(map, source)[dest];
+                assertEquals(expected, ch.distance(source, dest), 0.0);
+                List<Integer> path = ch.path(source, dest);
+                if (expected == Double.POSITIVE_INFINITY) {
+                    assertTrue(path.isEmpty());
+                } else {
+                    assertEquals(expected,
+                                 pathLength(map, path, source, dest), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMapReader() throws IOException {
+        Random rand = new Random(71);
+        StringBuilder text = new StringBuilder(" L\tA 1.5\r\n-0.25 R\n");
+        String[] numbers = new String[20000];
+        for (int i = 0; i < numbers.length; i += 1) {
+            double x = (rand.nextDouble() - 0.5) * Math.pow(10, i % 9);
+            numbers[i] = i % 2 == 0 ? String.format(Locale.ROOT, "%.3f", x)
+                : Double.toString(x);
+            text.append(numbers[i]).append(i % 7 == 0 ? "\n" : " ");
+        }
+        char[] longName = new char[100000];
+        Arrays.fill(longName, 'x');
+        text.append(longName).append(" 1e3 R");
+        MapReader inp = new MapReader(new ByteArrayInputStream(
+            text.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals("L", inp.nextInterned());
+        assertEquals("A", inp.next());
+        assertEquals(1.5, inp.nextDouble(), 0.0);
+        assertEquals(-0.25, inp.nextDouble(), 0.0);
+        String r = inp.nextInterned();
+        assertEquals("R", r);
+        for (String number : numbers) {
+            assertEquals(Double.parseDouble(number), inp.nextDouble(), 0.0);
+        }
+        assertEquals(new String(longName), inp.next());
+        assertEquals(1000.0, inp.nextDouble(), 0.0);
+        assertTrue(inp.hasNext());
+        assertSame(r, inp.nextInterned());
+        assertFalse(inp.hasNext());
+        try {
+            inp.next();
+            fail("read past end");
+        } catch (NoSuchElementException excp) {
+            /* Expected. */
+        }
+        for (String bad : new String[] { "1.5d", "0x10", "-", "1,5" }) {
+            inp = new MapReader(new ByteArrayInputStream(
+                bad.getBytes(StandardCharsets.UTF_8)));
+            try {
+                inp.nextDouble();
+                fail("accepted " + bad);
+            } catch (InputMismatchException excp) {
+                /* Expected. */
+            }
+        }
+    }
+
+    @Test
+    public void testLandmarks() throws IOException {
+        Random rand = new Random(43);
+        for (int trial = 0; trial < 20; trial += 1) {
+            int n = 2 + rand.nextInt(60);
+            LabeledGraph<Location, Road> map =
+                randomMap(n, 2 * n, rand, true);
+            Landmarks alt = new Landmarks(map, 4, trial % 2 == 1);
+            assertEquals(Math.min(4, n), alt.size());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            alt.write(out);
+            Landmarks copy =
+                Landmarks.read(new ByteArrayInputStream(out.toByteArray()),
+                               map);
+            for (int u = 1; u <= n; u += 1) {
+                double[] dist = distances(map, u);
+                for (int v = 1; v <= n; v += 1) {
+                    assertTrue(alt.estimate(u, v) <= dist[v]);
+                    assertEquals(alt.estimate(u, v), copy.estimate(u, v), 0.0);
+                }
+            }
+            int source = 1 + rand.nextInt(n), dest = 1 + rand.nextInt(n);
+            SimpleShortestPaths paths =
+                new SimpleShortestPaths(map, source, dest) {
+                    @Override
+                    protected double getWeight(int u, int v) {
+                        return map.getLabel(u, v).length();
+                    }
+
+                    @Override
+                    protected double estimatedDistance(int v) {
+                        return alt.estimate(v, dest);
+                    }
+                };
+            paths.setPaths();
+            assertEquals(distances(map, source)[dest],
+                         paths.getWeight(dest), 0.0);
+            double length = map.contains(source, dest)
+                ? map.getLabel(source, dest).length() + 1 : 1;
+            map.add(source, dest, new Road("new", Direction.NS, length));
+            try {
+                Landmarks.read(new ByteArrayInputStream(out.toByteArray()),
+                               map);
+                fail("stale landmark tables accepted");
+            } catch (IllegalArgumentException excp) {
+                /* Expected. */
+            }
+        }
+    }
+
+    @Test
+    public void testCorruptLandmarks() throws IOException {
+        LabeledGraph<Location, Road> map =
+            randomMap(20, 40, new Random(47), true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Landmarks(map, 4, false).write(out);
+        byte[] good = out.toByteArray();
+        int[][] corruptions = {
+            { LENGTH_OFFSET, 22 }, { LENGTH_OFFSET, -1 },
+            { COUNT_OFFSET, -1 }, { COUNT_OFFSET, 21 },
+            { COUNT_OFFSET, Integer.MAX_VALUE }, { COUNT_OFFSET + 4, 0 },
+            { COUNT_OFFSET + 4, 21 },
+        };
+        for (int[] corruption : corruptions) {
+            byte[] bad = good.clone();
+            int offset = corruption[0], value = corruption[1];
+            for (int i = 0; i < 4; i += 1) {
+                bad[offset + i] = (byte) (value >>> (24 - 8 * i));
+            }
+            try {
+                Landmarks.read(new ByteArrayInputStream(bad), map);
+                fail("corrupt landmark tables accepted");
+            } catch (IOException excp) {
+                /* Expected. */
+            }
+        }
+        Landmarks copy = Landmarks.read(new ByteArrayInputStream(good), map);
+        assertEquals(4, copy.size());
+    }
+
+    /** Offsets in a file of landmark tables of the length of the tables
+     *  and the number of landmarks, which the landmarks follow. */
+    private static final int LENGTH_OFFSET = 12, COUNT_OFFSET = 16;
+
 }